@@ -0,0 +1,39 @@
+package com.inventory.validation;
+
+import com.inventory.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled validator with the reflective one it replaced, on a valid product
+ * (every rule runs). Run with {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductValidatorBenchmark {
+    private final Product product = new Product(1, "Milk", 5.0, 100, LocalDate.now().plusDays(30), false, 1, 1, 1);
+
+    @Benchmark
+    public void compiled() {
+        ProductValidator.validateProduct(product);
+    }
+
+    @Benchmark
+    public void reflective() {
+        ReflectiveProductValidator.validateProduct(product);
+    }
+}
@@ -64,6 +64,15 @@ public class ConfigManager {
         }
     }
 
+    public boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = getProperty(key, String.valueOf(defaultValue)).trim();
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        logger.warn("Invalid boolean for {}: {}, using default: {}", key, value, defaultValue);
+        return defaultValue;
+    }
+
     public double getDoubleProperty(String key, double defaultValue) {
         String value = getProperty(key, String.valueOf(defaultValue));
         try {
@@ -0,0 +1,140 @@
+package com.inventory.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.dao.DiscountRuleDAO;
+import com.inventory.discount.DiscountManager;
+import com.inventory.discount.DiscountRuleEngine;
+import com.inventory.model.DiscountPreview;
+import com.inventory.model.DiscountRule;
+import com.inventory.model.Product;
+import com.inventory.service.CatalogSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/discounts")
+public class DiscountController {
+    private static final Logger logger = LoggerFactory.getLogger(DiscountController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int STREAM_FLUSH_EVERY = 100;
+
+    private final DiscountRuleDAO discountRuleDAO;
+    private final DiscountRuleEngine discountRuleEngine;
+    private final DiscountManager discountManager;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ObjectWriter writer;
+
+    // Constructor injection
+    public DiscountController(DiscountRuleDAO discountRuleDAO, DiscountRuleEngine discountRuleEngine,
+                              DiscountManager discountManager, CatalogSnapshot catalogSnapshot, ObjectMapper objectMapper) {
+        this.discountRuleDAO = discountRuleDAO;
+        this.discountRuleEngine = discountRuleEngine;
+        this.discountManager = discountManager;
+        this.catalogSnapshot = catalogSnapshot;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Dry-runs the dynamic discounts over the in-memory catalog and returns the totals,
+     * overall and per category. Nothing is written.
+     */
+    @PostMapping("/preview")
+    public DiscountPreview preview() {
+        logger.info("POST /discounts/preview - Previewing dynamic discounts");
+        return discountManager.previewDynamicDiscounts(catalogSnapshot.current().products(), null);
+    }
+
+    /**
+     * Like {@link #preview()}, but streams newline-delimited JSON: one line per product that
+     * would be discounted, in ID order, then the totals as the last line.
+     */
+    @PostMapping(value = "/preview", params = "details=true")
+    public ResponseEntity<StreamingResponseBody> previewWithDetails() {
+        logger.info("POST /discounts/preview?details=true - Streaming discount preview");
+        List<Product> catalog = catalogSnapshot.current().products();
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                DiscountPreview preview = discountManager.previewDynamicDiscounts(catalog, line -> {
+                    try {
+                        writer.writeValue(generator, line);
+                        generator.writeRaw('\n');
+                        if (written[0]++ % STREAM_FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.writeValue(generator, preview);
+                generator.writeRaw('\n');
+            } catch (UncheckedIOException e) {
+                logger.warn("Discount preview stream aborted: {}", e.getMessage());
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * @return the rules in effect, in precedence order, including the configured fallback (ID 0)
+     */
+    @GetMapping("/rules")
+    public List<DiscountRule> getRules() {
+        logger.debug("GET /discounts/rules - Listing active discount rules");
+        return discountRuleEngine.current().rules();
+    }
+
+    @PostMapping("/rules")
+    public ResponseEntity<DiscountRule> addRule(@RequestBody DiscountRule rule) {
+        logger.info("POST /discounts/rules - Adding discount rule: {}", rule);
+        DiscountRule inserted = discountRuleDAO.insert(rule);
+        discountRuleEngine.reload();
+        return new ResponseEntity<>(inserted, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable int id) {
+        logger.info("DELETE /discounts/rules/{} - Deleting discount rule", id);
+        if (!discountRuleDAO.delete(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        discountRuleEngine.reload();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Picks up rules edited directly in the database without waiting for the next poll.
+     */
+    @PostMapping("/rules/reload")
+    public List<DiscountRule> reloadRules() {
+        logger.info("POST /discounts/rules/reload - Reloading discount rules");
+        return discountRuleEngine.reload().rules();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        logger.warn("Bad request: {}", e.getMessage());
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<String> handleUnreadableBody(HttpMessageNotReadableException e) {
+        logger.warn("Unreadable request body: {}", e.getMessage());
+        return new ResponseEntity<>("Malformed request body: " + e.getMostSpecificCause().getMessage(), HttpStatus.BAD_REQUEST);
+    }
+}
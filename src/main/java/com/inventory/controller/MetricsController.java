@@ -0,0 +1,48 @@
+package com.inventory.controller;
+
+import com.inventory.dao.HistoryDAO;
+import com.inventory.dao.ProductCache;
+import com.inventory.dao.ProductDAO;
+import com.inventory.database.ConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsController.class);
+    private final ConnectionPool connectionPool;
+    private final ProductDAO productDAO;
+    private final HistoryDAO historyDAO;
+
+    // Constructor injection
+    public MetricsController(ConnectionPool connectionPool, ProductDAO productDAO, HistoryDAO historyDAO) {
+        this.connectionPool = connectionPool;
+        this.productDAO = productDAO;
+        this.historyDAO = historyDAO;
+    }
+
+    @GetMapping("/pool")
+    public ConnectionPool.PoolStats getPoolStats() {
+        logger.debug("GET /metrics/pool - Reading connection pool stats");
+        return connectionPool.stats();
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<ProductCache.CacheStats> getCacheStats() {
+        logger.debug("GET /metrics/cache - Reading product cache stats");
+        ProductCache.CacheStats stats = productDAO.cacheStats();
+        return stats == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<HistoryDAO.WriteBehindStats> getHistoryStats() {
+        logger.debug("GET /metrics/history - Reading history write-behind stats");
+        HistoryDAO.WriteBehindStats stats = historyDAO.writeBehindStats();
+        return stats == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(stats);
+    }
+}
@@ -1,19 +1,47 @@
 package com.inventory.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.inventory.discount.DiscountManager;
+import com.inventory.exception.DuplicateProductException;
 import com.inventory.exception.ExpiredProductException;
+import com.inventory.exception.InsufficientStockException;
 import com.inventory.exception.ProductNotFoundException;
+import com.inventory.exception.PreconditionRequiredException;
+import com.inventory.exception.ProductVersionConflictException;
+import com.inventory.importer.ProductImporter;
+import com.inventory.model.BatchResult;
+import com.inventory.model.CategoryStockValue;
+import com.inventory.model.DiscountRunResult;
+import com.inventory.model.ImportResult;
 import com.inventory.model.Product;
+import com.inventory.model.ProductPage;
+import com.inventory.model.ProductOperation;
+import com.inventory.model.ProductQuery;
 import com.inventory.service.ProductService;
+import com.inventory.validation.ValidationReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Paul Badea
@@ -23,20 +51,91 @@ import java.util.List;
 @RequestMapping("/products")
 public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int STREAM_FLUSH_EVERY = 100;
 
     private final ProductService productService;
     private final DiscountManager discountManager;
+    private final ProductImporter productImporter;
+    private final ObjectWriter productWriter;
 
-    public ProductController(ProductService productService, DiscountManager discountManager) {
+    public ProductController(ProductService productService, DiscountManager discountManager, ProductImporter productImporter,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
         this.discountManager = discountManager;
+        this.productImporter = productImporter;
+        this.productWriter = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
 
+    /**
+     * Lists products one page at a time. The body stays a JSON array; when more rows exist
+     * the opaque cursor for the next page is returned in the X-Next-Cursor header and is
+     * passed back as {@code after}.
+     */
     @GetMapping
-    public List<Product> getAllProducts(){
-        logger.info("GET /products - Fetching all products");
-        return productService.getAllProducts();
+    public ResponseEntity<List<Product>> getAllProducts(@RequestParam(required = false) String after,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        @RequestParam(required = false) Integer categoryId,
+                                                        @RequestParam(required = false) Integer supplierId,
+                                                        @RequestParam(required = false) Integer minStock,
+                                                        @RequestParam(required = false) Double maxPrice,
+                                                        @RequestParam(required = false) String sort) {
+        logger.info("GET /products?after={}&limit={}&sort={} - Fetching products page", after, limit, sort);
+        ProductQuery query = ProductQuery.of(after, limit, categoryId, supplierId, minStock, maxPrice, sort);
+        ProductPage page = productService.findProducts(query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Exports the whole catalog as newline-delimited JSON, writing each row as it is read so
+     * memory stays flat regardless of catalog size.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        logger.info("GET /products/stream - Streaming all products");
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = productWriter.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                productService.streamAllProducts(product -> {
+                    try {
+                        productWriter.writeValue(generator, product);
+                        generator.writeRaw('\n');
+                        // Flush the first row right away, then in small batches
+                        if (written[0]++ % STREAM_FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                logger.warn("Product stream aborted: {}", e.getMessage());
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Returns one product with its version as the ETag; a matching If-None-Match gets a 304.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> getProduct(@PathVariable int id, WebRequest request) {
+        logger.info("GET /products/{} - Fetching product", id);
+        Product product = productService.getProductById(id);
+        if (request.checkNotModified(etag(product))) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag(product)).body(product);
     }
 
     @PostMapping
@@ -46,14 +145,75 @@ public class ProductController {
         return new ResponseEntity<>(product, HttpStatus.CREATED);
     }
 
+    /**
+     * Updates a product. The If-Match header (or the body's version) names the version being
+     * replaced; if another writer got there first the update is rejected with 412. Naming
+     * neither is rejected with 428; {@code If-Match: *} overwrites whatever version is stored.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable int id, @RequestBody Product product){
-        logger.info("PUT /products/{} - Updating product", id);
+    public ResponseEntity<Product> updateProduct(@PathVariable int id, @RequestBody Product product,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        logger.info("PUT /products/{} - Updating product, If-Match: {}", id, ifMatch);
         if(product.id() != id){
             throw new IllegalArgumentException("Product ID in path must match the body");
         }
-        productService.updateProduct(product);
-        return ResponseEntity.ok(product);
+        Integer expectedVersion = versionFromIfMatch(ifMatch);
+        if (expectedVersion != null) {
+            product = product.withVersion(expectedVersion);
+        } else if (ifMatch != null && ifMatch.trim().equals("*")) {
+            product = product.withVersion(0);
+        } else if (product.version() <= 0) {
+            throw new PreconditionRequiredException("An If-Match header or a version in the body is required");
+        }
+        Product updated = productService.updateProduct(product);
+        return ResponseEntity.ok().eTag(etag(updated)).body(updated);
+    }
+
+    /**
+     * Applies a JSON array of add/update/adjust/delete operations in one transaction. With
+     * {@code mode=all-or-nothing} (the default) any invalid operation rejects the whole batch
+     * with 422; with {@code mode=best-effort} valid operations are committed and the rest are
+     * reported per item. An update must carry the version it replaces.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> applyBatch(@RequestBody List<ProductOperation> operations,
+                                                  @RequestParam(defaultValue = "all-or-nothing") String mode) {
+        logger.info("POST /products/batch?mode={} - Applying {} operations", mode, operations.size());
+        boolean atomic = switch (mode) {
+            case "all-or-nothing" -> true;
+            case "best-effort" -> false;
+            default -> throw new IllegalArgumentException("Unknown batch mode: " + mode + " (expected all-or-nothing or best-effort)");
+        };
+        BatchResult result = productService.applyBatch(operations, atomic);
+        return new ResponseEntity<>(result, result.committed() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Validates products without storing them and reports every violation of every row.
+     */
+    @PostMapping("/validate")
+    public ValidationReport validateProducts(@RequestBody List<Product> products) {
+        logger.info("POST /products/validate - Validating {} products", products.size());
+        return productService.validateProducts(products);
+    }
+
+    /**
+     * Imports a product CSV streamed in the request body. Rows are validated in parallel and
+     * stored in batches; the response carries counts, throughput and, if any row failed, the
+     * name of an error file that can be fetched from /products/import/errors/{name}.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ImportResult importProducts(InputStream body) throws IOException {
+        logger.info("POST /products/import - Importing products from CSV");
+        return productImporter.importCsv(body);
+    }
+
+    @GetMapping(value = "/import/errors/{name}", produces = "text/csv")
+    public ResponseEntity<Resource> getImportErrors(@PathVariable String name) {
+        logger.info("GET /products/import/errors/{} - Fetching import error file", name);
+        return productImporter.errorFile(name)
+                .map(file -> ResponseEntity.ok().<Resource>body(new FileSystemResource(file)))
+                .orElseThrow(() -> new ProductNotFoundException("Import error file " + name + " not found"));
     }
 
     @DeleteMapping("/{id}")
@@ -69,11 +229,23 @@ public class ProductController {
         return productService.findProductsByName(name);
     }
 
+    @GetMapping("/suggest")
+    public List<Product> suggestProducts(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        logger.debug("GET /products/suggest?prefix={}&limit={} - Suggesting products", prefix, limit);
+        return productService.suggestProducts(prefix, limit);
+    }
+
     @PostMapping("/{id}/discount")
     public ResponseEntity<Product> applyDiscount(@PathVariable int id) {
         logger.info("POST /products/{}/discount - Applying discount", id);
         Product discounted = discountManager.applyDynamicDiscount(id);
-        return ResponseEntity.ok(discounted);
+        return ResponseEntity.ok().eTag(etag(discounted)).body(discounted);
+    }
+
+    @PostMapping("/dynamic-discounts")
+    public DiscountRunResult applyDynamicDiscounts() {
+        logger.info("POST /products/dynamic-discounts - Discounting near-expiry products");
+        return discountManager.runDynamicDiscounts();
     }
 
     @PutMapping("/{id}/stock")
@@ -90,6 +262,18 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/stats/stock-value")
+    public List<CategoryStockValue> getStockValueByCategory() {
+        logger.info("GET /products/stats/stock-value - Summing stock value by category");
+        return productService.getStockValueByCategory();
+    }
+
+    @GetMapping("/stats/near-expiry")
+    public Map<String, Integer> countNearExpiry(@RequestParam(defaultValue = "7") int days) {
+        logger.info("GET /products/stats/near-expiry?days={} - Counting near-expiry products", days);
+        return Map.of("days", days, "count", productService.countNearExpiry(days));
+    }
+
     @GetMapping("/expiring-before")
     public List<Product> findProductsExpiringBefore(@RequestParam String date) {
         logger.info("GET /products/expiring-before?date={} - Finding expiring products", date);
@@ -97,18 +281,82 @@ public class ProductController {
         return productService.findProductsExpiringBefore(localDate);
     }
 
+    private static String etag(Product product) {
+        return "\"" + product.version() + "\"";
+    }
+
+    /**
+     * Reads the expected version from an If-Match header such as {@code "3"} or {@code W/"3"}.
+     * @return null when the header is absent or {@code *}
+     */
+    static Integer versionFromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            int version = Integer.parseInt(tag);
+            if (version > 0) {
+                return version;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+    }
+
+    @ExceptionHandler(ProductVersionConflictException.class)
+    public ResponseEntity<String> handleVersionConflict(ProductVersionConflictException e) {
+        logger.warn("Precondition failed: {}", e.getMessage());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (e.getCurrentVersion() > 0) {
+            response.eTag("\"" + e.getCurrentVersion() + "\"");
+        }
+        return response.body(e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<String> handlePreconditionRequired(PreconditionRequiredException e) {
+        logger.warn("Precondition required: {}", e.getMessage());
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.PRECONDITION_REQUIRED);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
         logger.warn("Bad request: {}", e.getMessage());
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<String> handleUnreadableBody(HttpMessageNotReadableException e) {
+        logger.warn("Unreadable request body: {}", e.getMessage());
+        return new ResponseEntity<>("Malformed request body: " + e.getMostSpecificCause().getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<String> handleNotFound(ProductNotFoundException e) {
         logger.warn("Not found: {}", e.getMessage());
         return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(DuplicateProductException.class)
+    public ResponseEntity<String> handleDuplicate(DuplicateProductException e) {
+        logger.warn("Duplicate product: {}", e.getMessage());
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStock(InsufficientStockException e) {
+        logger.warn("Insufficient stock: {}", e.getMessage());
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(ExpiredProductException.class)
     public ResponseEntity<String> handleExpired(ExpiredProductException e) {
         logger.warn("Expired product: {}", e.getMessage());
@@ -1,5 +1,6 @@
 package com.inventory.dao;
 
+import com.inventory.database.ConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -7,10 +8,10 @@ import java.sql.*;
 
 public class CategoryDAO implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(CategoryDAO.class);
-    private final Connection connection;
+    private final ConnectionPool pool;
 
-    public CategoryDAO(Connection connection) {
-        this.connection = connection;
+    public CategoryDAO(ConnectionPool pool) {
+        this.pool = pool;
     }
 
     public int insertCategory(String name) {
@@ -19,7 +20,8 @@ public class CategoryDAO implements AutoCloseable {
             throw new IllegalArgumentException("Category name cannot be empty.");
         }
         String query = "INSERT INTO Category (name) VALUES (?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (ConnectionPool.Lease lease = pool.write();
+             PreparedStatement stmt = lease.connection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, name);
             stmt.executeUpdate();
             ResultSet rs = stmt.getGeneratedKeys();
@@ -39,6 +41,6 @@ public class CategoryDAO implements AutoCloseable {
     @Override
     public void close() throws SQLException {
         logger.debug("Closing CategoryDAO.");
-        // Connection closed by caller (Main)
+        // Connections are owned by the pool
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.inventory.dao;
+
+import com.inventory.database.ConnectionPool;
+import com.inventory.model.DiscountRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DiscountRuleDAO {
+    private static final Logger logger = LoggerFactory.getLogger(DiscountRuleDAO.class);
+    private final ConnectionPool pool;
+
+    public DiscountRuleDAO(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public List<DiscountRule> findAll() {
+        String query = "SELECT id, category_id, supplier_id, min_days, max_days, type, amount, priority FROM DiscountRule ORDER BY id";
+        try (ConnectionPool.Lease lease = pool.read();
+             PreparedStatement stmt = lease.connection().prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            List<DiscountRule> rules = new ArrayList<>();
+            while (rs.next()) {
+                rules.add(new DiscountRule(
+                        rs.getInt("id"),
+                        rs.getObject("category_id") != null ? rs.getInt("category_id") : null,
+                        rs.getObject("supplier_id") != null ? rs.getInt("supplier_id") : null,
+                        rs.getInt("min_days"),
+                        rs.getInt("max_days"),
+                        DiscountRule.Type.valueOf(rs.getString("type")),
+                        rs.getLong("amount"),
+                        rs.getInt("priority")));
+            }
+            logger.debug("Loaded {} discount rules.", rules.size());
+            return rules;
+        } catch (SQLException e) {
+            logger.error("Error loading discount rules: {}", e.getMessage(), e);
+            throw new RuntimeException("Error loading discount rules", e);
+        }
+    }
+
+    /**
+     * @return the rule with its generated ID
+     */
+    public DiscountRule insert(DiscountRule rule) {
+        String query = "INSERT INTO DiscountRule (category_id, supplier_id, min_days, max_days, type, amount, priority) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (ConnectionPool.Lease lease = pool.write();
+             PreparedStatement stmt = lease.connection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setObject(1, rule.categoryId(), Types.INTEGER);
+            stmt.setObject(2, rule.supplierId(), Types.INTEGER);
+            stmt.setInt(3, rule.minDays());
+            stmt.setInt(4, rule.maxDays());
+            stmt.setString(5, rule.type().name());
+            stmt.setLong(6, rule.amount());
+            stmt.setInt(7, rule.priority());
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("Failed to retrieve discount rule ID.");
+                }
+                DiscountRule inserted = rule.withId(rs.getInt(1));
+                logger.info("Discount rule inserted: {}", inserted);
+                return inserted;
+            }
+        } catch (SQLException e) {
+            logger.error("Error inserting discount rule: {}", e.getMessage(), e);
+            throw new RuntimeException("Error inserting discount rule: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return false if no rule has the ID
+     */
+    public boolean delete(int id) {
+        try (ConnectionPool.Lease lease = pool.write();
+             PreparedStatement stmt = lease.connection().prepareStatement("DELETE FROM DiscountRule WHERE id = ?")) {
+            stmt.setInt(1, id);
+            boolean deleted = stmt.executeUpdate() > 0;
+            logger.info("Discount rule ID: {} {}", id, deleted ? "deleted" : "not found");
+            return deleted;
+        } catch (SQLException e) {
+            logger.error("Error deleting discount rule: {}", e.getMessage(), e);
+            throw new RuntimeException("Error deleting discount rule", e);
+        }
+    }
+}
@@ -1,21 +1,68 @@
 package com.inventory.dao;
 
+import com.inventory.config.ConfigManager;
+import com.inventory.database.ConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
 
 public class HistoryDAO implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(HistoryDAO.class);
-    private final Connection connection;
+    // Same format and zone as SQLite's CURRENT_TIMESTAMP, which fills the column on direct inserts
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Five parameters per row (timestamp included) keeps a full statement within SQLite's
+    // default limit of 999 bound parameters
+    private static final int PARAMS_PER_ROW = 5;
+    private static final int MAX_ROWS_PER_INSERT = 999 / PARAMS_PER_ROW;
 
-    public HistoryDAO(Connection connection) {
-        this.connection = connection;
+    private final ConnectionPool pool;
+    private final HistoryWriteBehind writeBehind;
+    private final long offerTimeoutMs;
+
+    public HistoryDAO(ConnectionPool pool) {
+        this.pool = pool;
+        this.writeBehind = null;
+        this.offerTimeoutMs = 0;
+    }
+
+    HistoryDAO(ConnectionPool pool, int capacity, int flushSize, long flushIntervalMs, long offerTimeoutMs) {
+        this.pool = pool;
+        this.writeBehind = new HistoryWriteBehind(capacity, flushSize, flushIntervalMs, this::insertBatch);
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    /**
+     * Builds a HistoryDAO that writes inline, or through the write-behind queue when
+     * {@code history.write.behind} is true.
+     */
+    public static HistoryDAO fromConfig(ConnectionPool pool, ConfigManager config) {
+        if (!config.getBooleanProperty("history.write.behind", false)) {
+            return new HistoryDAO(pool);
+        }
+        return new HistoryDAO(pool,
+                config.getIntProperty("history.queue.capacity", 10_000),
+                config.getIntProperty("history.flush.size", 200),
+                config.getIntProperty("history.flush.interval.ms", 200),
+                config.getIntProperty("history.offer.timeout.ms", 1000));
     }
 
     public void logProductHistory(int productId, String action, String oldValue, String newValue) {
+        if (writeBehind != null) {
+            Entry entry = Entry.now(productId, action, oldValue, newValue);
+            // Queue only once the change is committed, so rolled-back writes leave no history
+            pool.transactions().afterCommit(() -> enqueue(entry));
+            return;
+        }
+
         String query = "INSERT INTO ProductHistory (product_id, action, old_value, new_value) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.write();
+             PreparedStatement stmt = lease.connection().prepareStatement(query)) {
             stmt.setInt(1, productId);
             stmt.setString(2, action);
             stmt.setObject(3, oldValue, Types.VARCHAR);
@@ -28,9 +75,91 @@ public class HistoryDAO implements AutoCloseable {
         }
     }
 
+    /**
+     * Logs several entries at once: one batched insert in the caller's transaction, or queued
+     * after commit in write-behind mode.
+     */
+    void logAll(List<Entry> entries) {
+        if (writeBehind != null) {
+            pool.transactions().afterCommit(() -> entries.forEach(this::enqueue));
+            return;
+        }
+        insertBatch(entries);
+    }
+
+    private void enqueue(Entry entry) {
+        // A caller holding the write connection must not wait: the background writer needs it
+        long timeoutMs = pool.isWriteHeldByCurrentThread() ? 0 : offerTimeoutMs;
+        if (writeBehind.offer(entry, timeoutMs)) {
+            logger.debug("Queued history for product ID: {}, action: {}", entry.productId(), entry.action());
+            return;
+        }
+        logger.debug("History queue full or closed, writing inline for product ID: {}", entry.productId());
+        insertBatch(List.of(entry));
+    }
+
+    /**
+     * Writes entries with multi-row INSERTs in a single transaction, keeping each entry's own
+     * timestamp. Joins the caller's transaction if one is open on the write connection.
+     */
+    void insertBatch(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            pool.transactions().executeWithoutResult(connection -> {
+                for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_INSERT) {
+                    insertChunk(connection, entries.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, entries.size())));
+                }
+                logger.debug("Logged {} history entries in one batch.", entries.size());
+            });
+        } catch (SQLException e) {
+            logger.error("Error logging product history batch: {}", e.getMessage(), e);
+            throw new RuntimeException("Error logging product history: " + e.getMessage(), e);
+        }
+    }
+
+    private static void insertChunk(Connection connection, List<Entry> chunk) throws SQLException {
+        String query = "INSERT INTO ProductHistory (product_id, action, old_value, new_value, timestamp) VALUES "
+                + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?)"));
+        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            int i = 1;
+            for (Entry entry : chunk) {
+                stmt.setInt(i++, entry.productId());
+                stmt.setString(i++, entry.action());
+                stmt.setObject(i++, entry.oldValue(), Types.VARCHAR);
+                stmt.setObject(i++, entry.newValue(), Types.VARCHAR);
+                stmt.setString(i++, entry.timestamp().format(TIMESTAMP_FORMAT));
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * @return queue and batch counters, or null when history is written inline
+     */
+    public WriteBehindStats writeBehindStats() {
+        return writeBehind == null ? null : writeBehind.stats();
+    }
+
+    /**
+     * Drains the write-behind queue, if any, before the pool is closed.
+     */
     @Override
     public void close() throws SQLException {
         logger.debug("Closing HistoryDAO.");
-        // Connection closed by caller (Main)
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        // Connections are owned by the pool
     }
-}
\ No newline at end of file
+
+    record Entry(int productId, String action, String oldValue, String newValue, LocalDateTime timestamp) {
+        static Entry now(int productId, String action, String oldValue, String newValue) {
+            return new Entry(productId, action, oldValue, newValue, LocalDateTime.now(ZoneOffset.UTC));
+        }
+    }
+
+    public record WriteBehindStats(int queued, int remainingCapacity, long enqueued, long writtenInline,
+                                   long written, long batches, int largestBatch, long failedWrites) { }
+}
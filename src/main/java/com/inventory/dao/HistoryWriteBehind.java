@@ -0,0 +1,203 @@
+package com.inventory.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue drained by one background thread that hands history entries to the sink in
+ * batches. A batch is written once it reaches the flush size or its oldest entry has waited
+ * the flush interval, whichever comes first. A batch the sink rejects is retried, with a
+ * growing pause, until it is written; nothing is discarded. {@link #close()} stops accepting
+ * entries and waits, for a bounded time, for everything still queued to be written.
+ */
+class HistoryWriteBehind implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryWriteBehind.class);
+    private static final long DEFAULT_CLOSE_TIMEOUT_MS = 10_000;
+    private static final long MAX_RETRY_PAUSE_MS = 5_000;
+
+    private final BlockingQueue<HistoryDAO.Entry> queue;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<HistoryDAO.Entry>> sink;
+    private final long closeTimeoutMs;
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Owned by the writer thread; close() takes over whatever is left once the writer has exited
+    private final List<HistoryDAO.Entry> batch;
+    // Size of the batch being written, for the count logged when close() gives up waiting
+    private volatile int inFlight;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    HistoryWriteBehind(int capacity, int flushSize, long flushIntervalMs, Consumer<List<HistoryDAO.Entry>> sink) {
+        this(capacity, flushSize, flushIntervalMs, DEFAULT_CLOSE_TIMEOUT_MS, sink);
+    }
+
+    HistoryWriteBehind(int capacity, int flushSize, long flushIntervalMs, long closeTimeoutMs,
+                       Consumer<List<HistoryDAO.Entry>> sink) {
+        if (capacity < 1 || flushSize < 1 || flushIntervalMs < 1 || closeTimeoutMs < 1) {
+            throw new IllegalArgumentException("Capacity, flush size, flush interval and close timeout must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.closeTimeoutMs = closeTimeoutMs;
+        this.batch = new ArrayList<>(flushSize);
+        this.sink = sink;
+        this.writer = new Thread(this::run, "history-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        logger.info("History write-behind started, capacity: {}, flush size: {}, interval: {} ms",
+                capacity, flushSize, flushIntervalMs);
+    }
+
+    /**
+     * Queues an entry, waiting up to {@code timeoutMs} for space when the queue is full.
+     * @return false if the entry was not queued (full or closed); the caller must write it itself
+     */
+    boolean offer(HistoryDAO.Entry entry, long timeoutMs) {
+        if (!running) {
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (queue.offer(entry, timeoutMs, TimeUnit.MILLISECONDS)) {
+                // close() may have started after the check above and already drained the
+                // queue for the last time. Taking the entry back hands it to the caller; if it
+                // is already gone, a drain took it and will write it.
+                if (!running && queue.remove(entry)) {
+                    rejected.increment();
+                    return false;
+                }
+                enqueued.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                HistoryDAO.Entry first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + flushIntervalNanos);
+                write(batch, Long.MAX_VALUE);
+            }
+            // Drain whatever was accepted before close()
+            do {
+                write(batch, Long.MAX_VALUE);
+                queue.drainTo(batch, flushSize);
+            } while (!batch.isEmpty());
+            logger.info("History write-behind stopped, {} entries written in {} batches.", written.sum(), batches.sum());
+        } catch (InterruptedException e) {
+            // Nothing here interrupts the writer; if something else does, stop and leave the
+            // unwritten entries to close()
+            Thread.currentThread().interrupt();
+            logger.error("History write-behind interrupted with {} entries unwritten.", batch.size() + queue.size());
+        }
+    }
+
+    private void fillBatch(List<HistoryDAO.Entry> batch, long deadline) throws InterruptedException {
+        while (batch.size() < flushSize && running) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0) {
+                return;
+            }
+            HistoryDAO.Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Writes the batch, retrying until the sink accepts it or {@code deadline} (a nanoTime)
+     * passes, then clears it. An interrupt during the pause between attempts is propagated
+     * with the batch left intact.
+     * @return false if the deadline passed first; the batch is left intact
+     */
+    private boolean write(List<HistoryDAO.Entry> batch, long deadline) throws InterruptedException {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        inFlight = batch.size();
+        long pauseMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.accept(batch);
+                written.add(batch.size());
+                batches.increment();
+                largestBatch.accumulateAndGet(batch.size(), Math::max);
+                batch.clear();
+                inFlight = 0;
+                return true;
+            } catch (RuntimeException e) {
+                failedWrites.increment();
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                logger.warn("History batch of {} entries failed (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, pauseMs, e.getMessage());
+                Thread.sleep(pauseMs);
+                pauseMs = Math.min(pauseMs * 2, MAX_RETRY_PAUSE_MS);
+            }
+        }
+    }
+
+    HistoryDAO.WriteBehindStats stats() {
+        return new HistoryDAO.WriteBehindStats(queue.size(), queue.remainingCapacity(), enqueued.sum(),
+                rejected.sum(), written.sum(), batches.sum(), largestBatch.get(), failedWrites.sum());
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        // No interrupt: it would abort a JDBC call mid-batch. The writer notices the flag
+        // within one flush interval.
+        running = false;
+        try {
+            writer.join(closeTimeoutMs);
+            if (writer.isAlive()) {
+                // Still retrying; it keeps going in the background for as long as the JVM lives
+                logger.error("History write-behind did not drain within {} ms; {} entries still unwritten.",
+                        closeTimeoutMs, queue.size() + inFlight);
+                return;
+            }
+            // Entries offered while the writer was finishing, plus any batch an interrupt left behind
+            List<HistoryDAO.Entry> rest = new ArrayList<>(batch);
+            queue.drainTo(rest);
+            if (!write(rest, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMs))) {
+                logger.error("History write-behind could not write {} entries within {} ms of close.",
+                        rest.size(), closeTimeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while draining history write-behind, {} entries unwritten.", queue.size() + inFlight);
+        }
+    }
+}
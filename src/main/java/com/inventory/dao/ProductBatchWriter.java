@@ -0,0 +1,411 @@
+package com.inventory.dao;
+
+import com.inventory.exception.ExpiredProductException;
+import com.inventory.exception.ProductVersionConflictException;
+import com.inventory.model.BatchItemResult;
+import com.inventory.model.BatchResult;
+import com.inventory.model.Money;
+import com.inventory.model.Product;
+import com.inventory.model.ProductOperation;
+import com.inventory.model.ProductOperation.Type;
+import com.inventory.validation.ProductValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Applies a list of product operations inside the caller's transaction. Every operation is
+ * first checked against the current rows (read once, up front) with earlier operations of the
+ * batch applied in memory, in input order; the survivors are then written in that same order,
+ * each run of consecutive operations of one type as a single JDBC batch. History rows go out as
+ * one batched insert.
+ */
+class ProductBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ProductBatchWriter.class);
+    private static final int MAX_KEYS_PER_QUERY = 300;
+
+    private static final String UPSERT = "INSERT INTO Product (name, price, stock, expiration_date, discounted, category_id, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (name, price, expiration_date) DO UPDATE SET stock = stock + excluded.stock, discounted = excluded.discounted, "
+            + "category_id = excluded.category_id, supplier_id = excluded.supplier_id, version = version + 1";
+    private static final String UPDATE = "UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String ADJUST = "UPDATE Product SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0";
+    private static final String DELETE = "DELETE FROM Product WHERE id = ?";
+
+    private final Connection connection;
+    private final boolean atomic;
+    private final boolean prevalidated;
+    private final List<ProductOperation> operations;
+    private final BatchItemResult[] results;
+
+    private final Map<Integer, Row> rowsById = new HashMap<>();
+    private final Map<NaturalKey, Row> rowsByKey = new HashMap<>();
+    // Operations that passed simulation, in input order
+    private final List<Planned> plan = new ArrayList<>();
+
+    /**
+     * @param prevalidated skip {@link ProductValidator} for products the caller has already validated
+     */
+    ProductBatchWriter(Connection connection, List<ProductOperation> operations, boolean atomic, boolean prevalidated) {
+        this.connection = connection;
+        this.operations = operations;
+        this.atomic = atomic;
+        this.prevalidated = prevalidated;
+        this.results = new BatchItemResult[operations.size()];
+    }
+
+    /**
+     * @return the per-item results, and the history entries of the items that were applied
+     */
+    BatchResult apply(List<HistoryDAO.Entry> history) throws SQLException {
+        validate();
+        load();
+        simulate();
+
+        boolean anyFailed = Arrays.stream(results).anyMatch(Objects::nonNull);
+        if (atomic && anyFailed) {
+            logger.warn("Rejecting batch of {} operations: at least one is invalid.", operations.size());
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    results[i] = BatchItemResult.skipped(i, operations.get(i).op(), operations.get(i).targetId());
+                }
+            }
+            return BatchResult.of(false, List.of(results));
+        }
+
+        for (int from = 0; from < plan.size(); ) {
+            Type type = plan.get(from).op.op();
+            int to = from + 1;
+            while (to < plan.size() && plan.get(to).op.op() == type) {
+                to++;
+            }
+            List<Planned> run = plan.subList(from, to);
+            switch (type) {
+                case ADD -> execute(type, UPSERT, ProductBatchWriter::bindAdd, run);
+                case UPDATE -> execute(type, UPDATE, ProductBatchWriter::bindUpdate, run);
+                case ADJUST -> execute(type, ADJUST, ProductBatchWriter::bindAdjust, run);
+                case DELETE -> execute(type, DELETE, (stmt, p) -> stmt.setInt(1, p.op.id()), run);
+            }
+            from = to;
+        }
+        resolveInsertedIds();
+
+        for (Planned p : plan) {
+            if (results[p.index] == null) {
+                int id = p.row.id;
+                results[p.index] = BatchItemResult.ok(p.index, p.op.op(), id);
+                history.add(HistoryDAO.Entry.now(id, p.action, p.oldValue, p.newValue));
+            }
+        }
+        logger.info("Applied {} of {} batch operations.", plan.size(), operations.size());
+        return BatchResult.of(true, List.of(results));
+    }
+
+    private static void bindAdd(PreparedStatement stmt, Planned p) throws SQLException {
+        Product product = p.op.product();
+        stmt.setString(1, product.name());
+        stmt.setDouble(2, product.price().toDouble());
+        stmt.setInt(3, product.stock());
+        stmt.setString(4, product.expirationDate().toString());
+        stmt.setBoolean(5, product.discounted());
+        stmt.setObject(6, product.categoryId(), Types.INTEGER);
+        stmt.setObject(7, product.supplierId(), Types.INTEGER);
+    }
+
+    private static void bindUpdate(PreparedStatement stmt, Planned p) throws SQLException {
+        bindAdd(stmt, p);
+        stmt.setInt(8, p.op.product().id());
+        stmt.setInt(9, p.expectedVersion);
+    }
+
+    private static void bindAdjust(PreparedStatement stmt, Planned p) throws SQLException {
+        stmt.setInt(1, p.op.amount());
+        stmt.setInt(2, p.op.id());
+        stmt.setInt(3, p.op.amount());
+    }
+
+    private void validate() {
+        for (int i = 0; i < operations.size(); i++) {
+            ProductOperation op = operations.get(i);
+            String error = null;
+            if (op == null || op.op() == null) {
+                error = "Operation type is required";
+            } else if ((op.op() == Type.ADD || op.op() == Type.UPDATE) && op.product() == null) {
+                error = "Product is required for " + op.op().value();
+            } else if (op.op() != Type.ADD && (op.targetId() == null || op.targetId() <= 0)) {
+                error = "A positive product id is required for " + op.op().value();
+            } else if (op.op() == Type.UPDATE && op.product().version() <= 0) {
+                error = "A version is required for update";
+            } else if (op.op() == Type.ADJUST && op.amount() == null) {
+                error = "Amount is required for adjust";
+            } else if (op.product() != null && !prevalidated) {
+                try {
+                    ProductValidator.validateProduct(op.product());
+                } catch (IllegalArgumentException | ExpiredProductException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, op == null ? null : op.op(), op == null ? null : op.targetId(), error);
+            }
+        }
+    }
+
+    /**
+     * Reads every row the batch refers to: by id for update/adjust/delete, by natural key for
+     * adds that may merge into an existing product, and by the new natural key of updates that
+     * may clash with one.
+     */
+    private void load() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        Set<NaturalKey> keys = new LinkedHashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ProductOperation op = operations.get(i);
+            if (op.op() == Type.ADD || op.op() == Type.UPDATE) {
+                // An update may move the product onto the key of a row it does not name
+                keys.add(NaturalKey.of(op.product()));
+            }
+            if (op.op() != Type.ADD) {
+                ids.add(op.targetId());
+            }
+        }
+
+        List<Integer> distinctIds = ids.stream().distinct().sorted().toList();
+        for (int from = 0; from < distinctIds.size(); from += MAX_KEYS_PER_QUERY) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + MAX_KEYS_PER_QUERY, distinctIds.size()));
+            String query = "SELECT id, name, price, stock, expiration_date, version FROM Product WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                readRows(stmt);
+            }
+        }
+
+        List<NaturalKey> keyList = new ArrayList<>(keys);
+        for (int from = 0; from < keyList.size(); from += MAX_KEYS_PER_QUERY) {
+            List<NaturalKey> chunk = keyList.subList(from, Math.min(from + MAX_KEYS_PER_QUERY, keyList.size()));
+            try (PreparedStatement stmt = keyQuery(chunk)) {
+                readRows(stmt);
+            }
+        }
+    }
+
+    private PreparedStatement keyQuery(List<NaturalKey> keys) throws SQLException {
+        String query = "SELECT id, name, price, stock, expiration_date, version FROM Product WHERE (name, price, expiration_date) IN (VALUES "
+                + String.join(", ", Collections.nCopies(keys.size(), "(?, ?, ?)")) + ")";
+        PreparedStatement stmt = connection.prepareStatement(query);
+        int i = 1;
+        for (NaturalKey key : keys) {
+            stmt.setString(i++, key.name());
+            stmt.setDouble(i++, key.price().toDouble());
+            stmt.setString(i++, key.expirationDate().toString());
+        }
+        return stmt;
+    }
+
+    private void readRows(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                if (rowsById.containsKey(id)) {
+                    continue;
+                }
+                Row row = new Row(id, new NaturalKey(rs.getString("name"), ProductDAO.readPrice(rs),
+                        LocalDate.parse(rs.getString("expiration_date"))), rs.getInt("stock"), rs.getInt("version"));
+                rowsById.put(id, row);
+                rowsByKey.put(row.key, row);
+            }
+        }
+    }
+
+    /**
+     * Applies the valid operations to the loaded rows in input order, which is also the order
+     * they are written in, recording the history values each one will produce and failing
+     * those that cannot apply.
+     */
+    private void simulate() {
+        for (int i = 0; i < operations.size(); i++) {
+            ProductOperation op = operations.get(i);
+            if (results[i] == null) {
+                String error = simulate(i, op);
+                if (error != null) {
+                    results[i] = BatchItemResult.failed(i, op.op(), op.targetId(), error);
+                }
+            }
+        }
+    }
+
+    private String simulate(int index, ProductOperation op) {
+        Product product = op.product();
+        if (op.op() == Type.ADD) {
+            NaturalKey key = NaturalKey.of(product);
+            Row row = rowsByKey.get(key);
+            if (row == null) {
+                row = new Row(0, key, product.stock(), 1);
+                rowsByKey.put(key, row);
+                plan.add(new Planned(index, op, row, "ADD", null,
+                        "price: " + product.price().toDouble() + ", stock: " + product.stock(), 0));
+            } else {
+                int oldStock = row.stock;
+                row.stock += product.stock();
+                row.version++;
+                plan.add(new Planned(index, op, row, "UPDATE", "stock: " + oldStock, "stock: " + row.stock, 0));
+            }
+            return null;
+        }
+
+        Row row = rowsById.get(op.targetId());
+        if (row == null || row.deleted) {
+            return "Product with ID " + op.targetId() + " not found";
+        }
+        switch (op.op()) {
+            case UPDATE -> {
+                if (product.version() != row.version) {
+                    return "Product with ID " + row.id + " was modified concurrently (expected version " + product.version() + ")";
+                }
+                NaturalKey key = NaturalKey.of(product);
+                Row holder = rowsByKey.get(key);
+                if (holder != null && holder != row) {
+                    return ProductDAO.duplicateMessage(product.name(), product.price(), product.expirationDate());
+                }
+                String oldValue = "price: " + row.key.price().toDouble() + ", stock: " + row.stock;
+                int expectedVersion = row.version;
+                rowsByKey.remove(row.key);
+                row.key = key;
+                rowsByKey.put(key, row);
+                row.stock = product.stock();
+                row.version++;
+                plan.add(new Planned(index, op, row, "UPDATE", oldValue,
+                        "price: " + product.price().toDouble() + ", stock: " + product.stock(), expectedVersion));
+            }
+            case ADJUST -> {
+                if (row.stock + op.amount() < 0) {
+                    return "Stock cannot go below 0. Current: " + row.stock + ", Attempted change: " + op.amount();
+                }
+                int oldStock = row.stock;
+                row.stock += op.amount();
+                row.version++;
+                plan.add(new Planned(index, op, row, "STOCK_ADJUST", "stock: " + oldStock, "stock: " + row.stock, 0));
+            }
+            case DELETE -> {
+                row.deleted = true;
+                rowsByKey.remove(row.key);
+                plan.add(new Planned(index, op, row, "DELETE", null, null, 0));
+            }
+            default -> throw new IllegalStateException("Unexpected operation: " + op.op());
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement stmt, Planned planned) throws SQLException;
+    }
+
+    /**
+     * Runs a run of operations of one type as a JDBC batch under a savepoint. A row that another writer
+     * changed since it was read (update count 0) fails the batch in all-or-nothing mode; in
+     * best-effort mode a failed batch is retried row by row so only the bad rows are dropped.
+     */
+    private void execute(Type type, String sql, Binder binder, List<Planned> planned) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Planned p : planned) {
+                binder.bind(stmt, p);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new ProductVersionConflictException(
+                            "Product with ID " + planned.get(i).row.id + " was modified concurrently", 0);
+                }
+            }
+            connection.releaseSavepoint(savepoint);
+            logger.debug("Executed {} {} operations in one batch.", planned.size(), type.value());
+        } catch (SQLException | ProductVersionConflictException e) {
+            connection.rollback(savepoint);
+            if (atomic) {
+                throw e;
+            }
+            logger.warn("Batch of {} {} operations failed, retrying one by one: {}", planned.size(), type.value(), e.getMessage());
+            executeOneByOne(planned, sql, binder);
+        }
+    }
+
+    private void executeOneByOne(List<Planned> planned, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Planned p : planned) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    binder.bind(stmt, p);
+                    if (stmt.executeUpdate() == 0) {
+                        connection.rollback(savepoint);
+                        results[p.index] = BatchItemResult.failed(p.index, p.op.op(), p.op.targetId(),
+                                "Product with ID " + p.op.targetId() + " was modified concurrently");
+                        continue;
+                    }
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    connection.rollback(savepoint);
+                    results[p.index] = BatchItemResult.failed(p.index, p.op.op(), p.op.targetId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void resolveInsertedIds() throws SQLException {
+        List<NaturalKey> keys = plan.stream()
+                .filter(p -> p.op.op() == Type.ADD && p.row.id == 0 && results[p.index] == null)
+                .map(p -> p.row.key)
+                .distinct()
+                .toList();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_QUERY) {
+            List<NaturalKey> chunk = keys.subList(from, Math.min(from + MAX_KEYS_PER_QUERY, keys.size()));
+            try (PreparedStatement stmt = keyQuery(chunk); ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    NaturalKey key = new NaturalKey(rs.getString("name"), ProductDAO.readPrice(rs),
+                            LocalDate.parse(rs.getString("expiration_date")));
+                    Row row = rowsByKey.get(key);
+                    if (row != null && row.id == 0) {
+                        row.id = rs.getInt("id");
+                    }
+                }
+            }
+        }
+    }
+
+    private record NaturalKey(String name, Money price, LocalDate expirationDate) {
+        static NaturalKey of(Product product) {
+            return new NaturalKey(product.name(), product.price(), product.expirationDate());
+        }
+    }
+
+    /**
+     * A product row as the batch will leave it; id is 0 until an inserted row is read back.
+     */
+    private static final class Row {
+        int id;
+        NaturalKey key;
+        int stock;
+        int version;
+        boolean deleted;
+
+        Row(int id, NaturalKey key, int stock, int version) {
+            this.id = id;
+            this.key = key;
+            this.stock = stock;
+            this.version = version;
+        }
+    }
+
+    private record Planned(int index, ProductOperation op, Row row, String action,
+                           String oldValue, String newValue, int expectedVersion) { }
+}
@@ -0,0 +1,116 @@
+package com.inventory.dao;
+
+import com.inventory.config.ConfigManager;
+import com.inventory.model.Product;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded product cache keyed by ID, evicting the least recently used entry when full and
+ * any entry older than its time-to-live. Readers take a {@link #stamp()} before going to the
+ * database and pass it to {@link #put}; the put is dropped if anything was invalidated in
+ * between, so a read that raced a write can never cache the pre-write row.
+ */
+public class ProductCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Integer, Cached> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // All guarded by this
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public ProductCache(int maxSize, long ttlMs) {
+        this(maxSize, ttlMs, System::nanoTime);
+    }
+
+    ProductCache(int maxSize, long ttlMs, LongSupplier clock) {
+        if (maxSize < 1 || ttlMs < 1) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.clock = clock;
+    }
+
+    /**
+     * @return a cache sized from {@code cache.products.*}, or null when
+     * {@code cache.products.enabled} is false
+     */
+    public static ProductCache fromConfig(ConfigManager config) {
+        if (!config.getBooleanProperty("cache.products.enabled", true)) {
+            return null;
+        }
+        return new ProductCache(config.getIntProperty("cache.products.max.size", 10_000),
+                config.getIntProperty("cache.products.ttl.ms", 60_000));
+    }
+
+    /**
+     * @return the cached product, or null on a miss or an expired entry
+     */
+    public synchronized Product get(int id) {
+        Cached cached = entries.get(id);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        if (clock.getAsLong() - cached.loadedAt >= ttlNanos) {
+            entries.remove(id);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.product;
+    }
+
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a product read from the database, unless an invalidation happened after
+     * {@code stamp} was taken.
+     */
+    public synchronized void put(Product product, long stamp) {
+        if (stamp != invalidations) {
+            return;
+        }
+        entries.put(product.id(), new Cached(product, clock.getAsLong()));
+        if (entries.size() > maxSize) {
+            Iterator<Integer> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(int id) {
+        invalidations++;
+        entries.remove(id);
+    }
+
+    public synchronized void invalidateAll(Collection<Integer> ids) {
+        invalidations++;
+        entries.keySet().removeAll(ids);
+    }
+
+    public synchronized CacheStats stats() {
+        long lookups = hits + misses;
+        return new CacheStats(entries.size(), maxSize, hits, misses,
+                lookups == 0 ? 0 : (double) hits / lookups, evictions, expirations, invalidations);
+    }
+
+    private record Cached(Product product, long loadedAt) { }
+
+    public record CacheStats(int size, int maxSize, long hits, long misses, double hitRate,
+                             long evictions, long expirations, long invalidations) { }
+}
@@ -1,112 +1,136 @@
 package com.inventory.dao;
 
+import com.inventory.config.ConfigManager;
+import com.inventory.database.ConnectionPool;
+import com.inventory.exception.DuplicateProductException;
 import com.inventory.exception.ExpiredProductException;
+import com.inventory.exception.InsufficientStockException;
+import com.inventory.exception.ProductNotFoundException;
+import com.inventory.exception.ProductVersionConflictException;
+import com.inventory.model.BatchItemResult;
+import com.inventory.model.BatchResult;
+import com.inventory.model.Money;
 import com.inventory.model.Product;
+import com.inventory.model.ProductOperation;
+import com.inventory.model.ProductPage;
+import com.inventory.model.ProductQuery;
+import com.inventory.model.ProductSort;
 import com.inventory.validation.ProductValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class ProductDAO implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(ProductDAO.class);
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Connection connection;
+    private static final String SELECT_PRODUCT = "SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id, version FROM Product";
+    // Keeps IN lists well below SQLite's bound-parameter limit
+    private static final int MAX_IDS_PER_QUERY = 500;
+    private static final int STREAM_FETCH_SIZE = ConfigManager.getInstance().getIntProperty("db.stream.fetch.size", 500);
+    private final ConnectionPool pool;
     private final HistoryDAO historyDAO;
+    // Null when caching is disabled
+    private final ProductCache cache;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
 
-    public ProductDAO(Connection connection, HistoryDAO historyDAO) {
-        this.connection = connection;
+    /**
+     * Told which products a transaction inserted, updated or deleted, once it has committed.
+     * Called on the committing thread after the write connection is released.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void productsChanged(Collection<Integer> ids);
+    }
+
+    public ProductDAO(ConnectionPool pool, HistoryDAO historyDAO) {
+        this(pool, historyDAO, null);
+    }
+
+    public ProductDAO(ConnectionPool pool, HistoryDAO historyDAO, ProductCache cache) {
+        this.pool = pool;
         this.historyDAO = historyDAO;
+        this.cache = cache;
     }
 
-    public void insertOrUpdateProduct(Product product) {
-        lock.lock();
+    /**
+     * Adds a product, or adds its stock to the existing product with the same name, price and
+     * expiration date. One upsert statement against the unique natural-key index does the
+     * lookup and the write, so concurrent calls for the same product cannot both insert.
+     * @return the stored product, with its id, total stock and version
+     */
+    public Product insertOrUpdateProduct(Product product) {
         try {
             ProductValidator.validateProduct(product);
             logger.debug("Inserting or updating product: {}", product);
 
-            String checkQuery = "SELECT id, stock FROM Product WHERE name = ? AND price = ? AND expiration_date = ?";
-            String insertQuery = "INSERT INTO Product (name, price, stock, expiration_date, discounted, category_id, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
-            String updateQuery = "UPDATE Product SET stock = stock + ?, discounted = ?, category_id = ?, supplier_id = ? WHERE id = ?";
-
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkQuery)) {
-                checkStmt.setString(1, product.name());
-                checkStmt.setDouble(2, product.price());
-                checkStmt.setString(3, product.expirationDate().toString());
-                ResultSet rs = checkStmt.executeQuery();
+            String upsertQuery = "INSERT INTO Product (name, price, stock, expiration_date, discounted, category_id, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (name, price, expiration_date) DO UPDATE SET stock = stock + excluded.stock, discounted = excluded.discounted, "
+                    + "category_id = excluded.category_id, supplier_id = excluded.supplier_id, version = version + 1 "
+                    + "RETURNING id, stock, version";
 
-                if (rs.next()) {
-                    int existingId = rs.getInt("id");
-                    int oldStock = rs.getInt("stock");
-                    try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
-                        updateStmt.setInt(1, product.stock());
-                        updateStmt.setBoolean(2, product.discounted());
-                        updateStmt.setObject(3, product.categoryId(), Types.INTEGER);
-                        updateStmt.setObject(4, product.supplierId(), Types.INTEGER);
-                        updateStmt.setInt(5, existingId);
-                        updateStmt.executeUpdate();
-                        historyDAO.logProductHistory(existingId, "UPDATE", "stock: " + oldStock, "stock: " + (oldStock + product.stock()));
-                        logger.info("Updated product ID: {}, new stock: {}", existingId, oldStock + product.stock());
-                    }
-                } else {
-                    try (PreparedStatement insertStmt = connection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
-                        insertStmt.setString(1, product.name());
-                        insertStmt.setDouble(2, product.price());
-                        insertStmt.setInt(3, product.stock());
-                        insertStmt.setString(4, product.expirationDate().toString());
-                        insertStmt.setBoolean(5, product.discounted());
-                        insertStmt.setObject(6, product.categoryId(), Types.INTEGER);
-                        insertStmt.setObject(7, product.supplierId(), Types.INTEGER);
-                        insertStmt.executeUpdate();
-
-                        ResultSet generatedKeys = insertStmt.getGeneratedKeys();
-                        if (generatedKeys.next()) {
-                            int newId = generatedKeys.getInt(1);
-                            historyDAO.logProductHistory(newId, "ADD", null, "price: " + product.price() + ", stock: " + product.stock());
-                            logger.info("Inserted new product ID: {}", newId);
+            return pool.transactions().execute(connection -> {
+                try (PreparedStatement upsertStmt = connection.prepareStatement(upsertQuery)) {
+                    upsertStmt.setString(1, product.name());
+                    upsertStmt.setDouble(2, product.price().toDouble());
+                    upsertStmt.setInt(3, product.stock());
+                    upsertStmt.setString(4, product.expirationDate().toString());
+                    upsertStmt.setBoolean(5, product.discounted());
+                    upsertStmt.setObject(6, product.categoryId(), Types.INTEGER);
+                    upsertStmt.setObject(7, product.supplierId(), Types.INTEGER);
+                    try (ResultSet rs = upsertStmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Upsert returned no row for product: " + product.name());
+                        }
+                        int id = rs.getInt("id");
+                        int stock = rs.getInt("stock");
+                        int version = rs.getInt("version");
+                        publishOnCommit(List.of(id));
+                        // A new row starts at version 1; the conflict branch always bumps it
+                        if (version == 1) {
+                            historyDAO.logProductHistory(id, "ADD", null, "price: " + product.price().toDouble() + ", stock: " + stock);
+                            logger.info("Inserted new product ID: {}", id);
+                        } else {
+                            historyDAO.logProductHistory(id, "UPDATE", "stock: " + (stock - product.stock()), "stock: " + stock);
+                            logger.info("Updated product ID: {}, new stock: {}", id, stock);
                         }
+                        return new Product(id, product.name(), product.price(), stock, product.expirationDate(),
+                                product.discounted(), product.categoryId(), product.supplierId(), version);
                     }
                 }
-            }
+            });
         } catch (SQLException e) {
             logger.error("Error inserting or updating product: {}", e.getMessage(), e);
             throw new RuntimeException("Error inserting or updating product", e);
         } catch (IllegalArgumentException | ExpiredProductException e) {
             logger.warn("Validation failed for product: {}", e.getMessage());
             throw e;
-        } finally {
-            lock.unlock();
         }
     }
 
     public List<Product> getAllProducts(boolean throwOnExpired) {
         List<Product> products = new ArrayList<>();
-        String query = "SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id FROM Product";
 
-        lock.lock();
-        try (PreparedStatement stmt = connection.prepareStatement(query);
+        try (ConnectionPool.Lease lease = pool.read();
+             PreparedStatement stmt = lease.connection().prepareStatement(SELECT_PRODUCT);
              ResultSet rs = stmt.executeQuery()) {
             logger.debug("Retrieving all products, throwOnExpired: {}", throwOnExpired);
             while (rs.next()) {
-                LocalDate expirationDate = LocalDate.parse(rs.getString("expiration_date"));
-                Product product = new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getDouble("price"),
-                        rs.getInt("stock"),
-                        expirationDate,
-                        rs.getBoolean("discounted"),
-                        rs.getObject("category_id") != null ? rs.getInt("category_id") : null,
-                        rs.getObject("supplier_id") != null ? rs.getInt("supplier_id") : null
-                );
-
-                if (throwOnExpired && expirationDate.isBefore(LocalDate.now())) {
+                Product product = mapProduct(rs);
+
+                if (throwOnExpired && product.expirationDate().isBefore(LocalDate.now())) {
                     logger.warn("Expired product found: {}", product);
-                    throw new ExpiredProductException("Product '" + product.name() + "' is expired (expiration: " + expirationDate + ").");
+                    throw new ExpiredProductException("Product '" + product.name() + "' is expired (expiration: " + product.expirationDate() + ").");
                 }
                 products.add(product);
             }
@@ -114,14 +138,276 @@ public class ProductDAO implements AutoCloseable {
         } catch (SQLException e) {
             logger.error("Error retrieving products: {}", e.getMessage(), e);
             throw new RuntimeException("Error retrieving products", e);
-        } finally {
-            lock.unlock();
         }
         return products;
     }
 
-    public void updateProduct(Product product) throws SQLException {
-        lock.lock();
+    /**
+     * Hands every product to the consumer as it is read, without building a list. Runs on its
+     * own read connection and WAL snapshot, so long exports do not hold up writers.
+     * @return the number of products streamed
+     */
+    public int streamAllProducts(Consumer<Product> consumer) {
+        int count = 0;
+        try (ConnectionPool.Lease lease = pool.read();
+             PreparedStatement stmt = lease.connection().prepareStatement(SELECT_PRODUCT + " ORDER BY id")) {
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapProduct(rs));
+                    count++;
+                }
+            }
+            logger.info("Streamed {} products.", count);
+        } catch (SQLException e) {
+            logger.error("Error streaming products after {} rows: {}", count, e.getMessage(), e);
+            throw new RuntimeException("Error streaming products", e);
+        }
+        return count;
+    }
+
+    /**
+     * Looks up a product by ID, from the cache when one is configured. Reads inside a
+     * transaction go to the database, since they may see uncommitted changes.
+     */
+    public Optional<Product> findById(int id) {
+        if (cache == null || pool.transactions().inTransaction()) {
+            return loadById(id);
+        }
+        Product cached = cache.get(id);
+        if (cached != null) {
+            logger.debug("Find product by ID: {}, served from cache", id);
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Product> product = loadById(id);
+        product.ifPresent(p -> cache.put(p, stamp));
+        return product;
+    }
+
+    private Optional<Product> loadById(int id) {
+        String query = SELECT_PRODUCT + " WHERE id = ?";
+
+        try (ConnectionPool.Lease lease = pool.read();
+             PreparedStatement stmt = lease.connection().prepareStatement(query)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Optional<Product> product = rs.next() ? Optional.of(mapProduct(rs)) : Optional.empty();
+                logger.debug("Find product by ID: {}, found: {}", id, product.isPresent());
+                return product;
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving product ID {}: {}", id, e.getMessage(), e);
+            throw new RuntimeException("Error retrieving product", e);
+        }
+    }
+
+    /**
+     * Looks up several products by primary key. Missing IDs are skipped; results are ordered by ID.
+     */
+    public List<Product> findByIds(Collection<Integer> ids) {
+        List<Integer> distinctIds = ids.stream().distinct().sorted().toList();
+        List<Product> products = new ArrayList<>(distinctIds.size());
+
+        try (ConnectionPool.Lease lease = pool.read()) {
+            for (int from = 0; from < distinctIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinctIds.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String query = SELECT_PRODUCT + " WHERE id IN (" + placeholders + ") ORDER BY id";
+                try (PreparedStatement stmt = lease.connection().prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            products.add(mapProduct(rs));
+                        }
+                    }
+                }
+            }
+            logger.debug("Found {} of {} requested products.", products.size(), distinctIds.size());
+        } catch (SQLException e) {
+            logger.error("Error retrieving products by ID: {}", e.getMessage(), e);
+            throw new RuntimeException("Error retrieving products", e);
+        }
+        return products;
+    }
+
+    /**
+     * Returns up to {@code limit} undiscounted products expiring after {@code from} and on or
+     * before {@code to}, with IDs above {@code afterId}, ordered by ID. The range is served by
+     * the expiration-date index.
+     */
+    public List<Product> findDiscountCandidates(LocalDate from, LocalDate to, int afterId, int limit) {
+        String query = SELECT_PRODUCT + " WHERE discounted = 0 AND expiration_date > ? AND expiration_date <= ? AND id > ? ORDER BY id LIMIT ?";
+        List<Product> products = new ArrayList<>();
+
+        try (ConnectionPool.Lease lease = pool.read();
+             PreparedStatement stmt = lease.connection().prepareStatement(query)) {
+            stmt.setString(1, from.toString());
+            stmt.setString(2, to.toString());
+            stmt.setInt(3, afterId);
+            stmt.setInt(4, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapProduct(rs));
+                }
+            }
+            logger.debug("Found {} discount candidates after ID: {}", products.size(), afterId);
+        } catch (SQLException e) {
+            logger.error("Error retrieving discount candidates: {}", e.getMessage(), e);
+            throw new RuntimeException("Error retrieving discount candidates", e);
+        }
+        return products;
+    }
+
+    /**
+     * Writes discounted prices as one JDBC batch in one transaction, with a history row for
+     * each product written. {@code discounted} holds the new price for the product at the same
+     * index of {@code originals}. A product is skipped if it changed since it was read, or if
+     * its new price would collide with another product's natural key.
+     * @return the number of products written
+     */
+    public int saveDiscountedPrices(List<Product> originals, List<Product> discounted) {
+        if (originals.size() != discounted.size()) {
+            throw new IllegalArgumentException("Expected one discounted product per original");
+        }
+        String updateQuery = "UPDATE OR IGNORE Product SET price = ?, discounted = 1, version = version + 1 WHERE id = ? AND version = ? AND discounted = 0";
+        List<HistoryDAO.Entry> history = new ArrayList<>(originals.size());
+
+        try {
+            pool.transactions().executeWithoutResult(connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement(updateQuery)) {
+                    for (int i = 0; i < originals.size(); i++) {
+                        stmt.setDouble(1, discounted.get(i).price().toDouble());
+                        stmt.setInt(2, originals.get(i).id());
+                        stmt.setInt(3, originals.get(i).version());
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    publishOnCommit(originals.stream().map(Product::id).toList());
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] > 0) {
+                            Product before = originals.get(i);
+                            history.add(HistoryDAO.Entry.now(before.id(), "UPDATE",
+                                    "price: " + before.price().toDouble() + ", stock: " + before.stock(),
+                                    "price: " + discounted.get(i).price().toDouble() + ", stock: " + before.stock()));
+                        }
+                    }
+                }
+                historyDAO.logAll(history);
+            });
+            logger.debug("Saved {} of {} discounted prices.", history.size(), originals.size());
+            return history.size();
+        } catch (SQLException e) {
+            logger.error("Error saving discounted prices: {}", e.getMessage(), e);
+            throw new RuntimeException("Error saving discounted prices", e);
+        }
+    }
+
+    /**
+     * Returns one page of products using seek (keyset) pagination: the page starts strictly
+     * after the cursor's (sort key, id) position, so the cost does not grow with page depth.
+     */
+    public ProductPage findPage(ProductQuery query) {
+        StringBuilder sql = new StringBuilder(SELECT_PRODUCT).append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (query.categoryId() != null) {
+            sql.append(" AND category_id = ?");
+            params.add(query.categoryId());
+        }
+        if (query.supplierId() != null) {
+            sql.append(" AND supplier_id = ?");
+            params.add(query.supplierId());
+        }
+        if (query.minStock() != null) {
+            sql.append(" AND stock >= ?");
+            params.add(query.minStock());
+        }
+        if (query.maxPrice() != null) {
+            sql.append(" AND price <= ?");
+            params.add(query.maxPrice());
+        }
+
+        String column = query.sort().column();
+        String comparison = query.descending() ? "<" : ">";
+        String direction = query.descending() ? " DESC" : "";
+        if (query.afterId() != null) {
+            if (query.sort() == ProductSort.ID) {
+                sql.append(" AND id ").append(comparison).append(" ?");
+            } else {
+                sql.append(" AND (").append(column).append(", id) ").append(comparison).append(" (?, ?)");
+                params.add(query.afterKey());
+            }
+            params.add(query.afterId());
+        }
+        if (query.sort() == ProductSort.ID) {
+            sql.append(" ORDER BY id").append(direction);
+        } else {
+            sql.append(" ORDER BY ").append(column).append(direction).append(", id").append(direction);
+        }
+        sql.append(" LIMIT ?");
+        // One extra row tells us whether another page exists
+        params.add(query.limit() + 1);
+
+        List<Product> products = new ArrayList<>(query.limit() + 1);
+        try (ConnectionPool.Lease lease = pool.read();
+             PreparedStatement stmt = lease.connection().prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving product page: {}", e.getMessage(), e);
+            throw new RuntimeException("Error retrieving products", e);
+        }
+
+        String nextCursor = null;
+        if (products.size() > query.limit()) {
+            products.remove(products.size() - 1);
+            nextCursor = query.cursorAfter(products.get(products.size() - 1));
+        }
+        logger.debug("Retrieved page of {} products, more: {}", products.size(), nextCursor != null);
+        return new ProductPage(products, nextCursor);
+    }
+
+    /**
+     * Reads the REAL price column as whole cents. Every stored price was written from a
+     * {@link Money}, so the double is within rounding error of an exact cent amount.
+     */
+    static Money readPrice(ResultSet rs) throws SQLException {
+        return Money.ofCents(Math.round(rs.getDouble("price") * 100));
+    }
+
+    private static Product mapProduct(ResultSet rs) throws SQLException {
+        return new Product(
+                rs.getInt("id"),
+                rs.getString("name"),
+                readPrice(rs),
+                rs.getInt("stock"),
+                LocalDate.parse(rs.getString("expiration_date")),
+                rs.getBoolean("discounted"),
+                rs.getObject("category_id") != null ? rs.getInt("category_id") : null,
+                rs.getObject("supplier_id") != null ? rs.getInt("supplier_id") : null,
+                rs.getInt("version")
+        );
+    }
+
+    /**
+     * Replaces a product's fields using optimistic concurrency: the UPDATE only matches the
+     * version that was read, so no lock is held and a concurrent writer is detected instead of
+     * silently overwritten. When {@code product.version()} is set it must equal the stored
+     * version; 0 updates whatever version is current, so callers acting for a client must
+     * pass the version the client read.
+     * @return the new version
+     * @throws ProductVersionConflictException if the stored version does not match
+     * @throws DuplicateProductException if another product has the new name, price and expiration date
+     */
+    public int updateProduct(Product product) throws SQLException {
         try {
             ProductValidator.validateProduct(product);
             if (product.id() <= 0) {
@@ -129,52 +415,88 @@ public class ProductDAO implements AutoCloseable {
                 throw new IllegalArgumentException("Cannot update product with invalid ID: " + product.id());
             }
 
-            String selectQuery = "SELECT price, stock FROM Product WHERE id = ?";
-            String updateQuery = "UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ? WHERE id = ?";
+            String selectQuery = "SELECT price, stock, version FROM Product WHERE id = ?";
+            String updateQuery = "UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ?, version = version + 1 WHERE id = ? AND version = ?";
 
-            try (PreparedStatement selectStmt = connection.prepareStatement(selectQuery)) {
-                selectStmt.setInt(1, product.id());
-                ResultSet rs = selectStmt.executeQuery();
-                if (!rs.next()) {
-                    logger.warn("Product not found for update, ID: {}", product.id());
-                    throw new SQLException("No product found with ID: " + product.id());
-                }
+            return pool.transactions().execute(connection -> {
+                try (PreparedStatement selectStmt = connection.prepareStatement(selectQuery)) {
+                    selectStmt.setInt(1, product.id());
+                    ResultSet rs = selectStmt.executeQuery();
+                    if (!rs.next()) {
+                        logger.warn("Product not found for update, ID: {}", product.id());
+                        throw new SQLException("No product found with ID: " + product.id());
+                    }
 
-                String oldValue = "price: " + rs.getDouble("price") + ", stock: " + rs.getInt("stock");
-                String newValue = "price: " + product.price() + ", stock: " + product.stock();
+                    int currentVersion = rs.getInt("version");
+                    int expectedVersion = product.version() > 0 ? product.version() : currentVersion;
+                    if (expectedVersion != currentVersion) {
+                        throw versionConflict(product.id(), expectedVersion, currentVersion);
+                    }
+                    String oldValue = "price: " + rs.getDouble("price") + ", stock: " + rs.getInt("stock");
+                    String newValue = "price: " + product.price().toDouble() + ", stock: " + product.stock();
 
-                try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
-                    updateStmt.setString(1, product.name());
-                    updateStmt.setDouble(2, product.price());
-                    updateStmt.setInt(3, product.stock());
-                    updateStmt.setString(4, product.expirationDate().toString());
-                    updateStmt.setBoolean(5, product.discounted());
-                    updateStmt.setObject(6, product.categoryId(), Types.INTEGER);
-                    updateStmt.setObject(7, product.supplierId(), Types.INTEGER);
-                    updateStmt.setInt(8, product.id());
-                    int rowsAffected = updateStmt.executeUpdate();
-                    if (rowsAffected > 0) {
+                    try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
+                        updateStmt.setString(1, product.name());
+                        updateStmt.setDouble(2, product.price().toDouble());
+                        updateStmt.setInt(3, product.stock());
+                        updateStmt.setString(4, product.expirationDate().toString());
+                        updateStmt.setBoolean(5, product.discounted());
+                        updateStmt.setObject(6, product.categoryId(), Types.INTEGER);
+                        updateStmt.setObject(7, product.supplierId(), Types.INTEGER);
+                        updateStmt.setInt(8, product.id());
+                        updateStmt.setInt(9, expectedVersion);
+                        int rowsAffected;
+                        try {
+                            rowsAffected = updateStmt.executeUpdate();
+                        } catch (SQLException e) {
+                            if (isUniqueViolation(e)) {
+                                throw duplicate(product);
+                            }
+                            throw e;
+                        }
+                        if (rowsAffected == 0) {
+                            // Another process wrote between our read and the update
+                            throw versionConflict(product.id(), expectedVersion, 0);
+                        }
+                        publishOnCommit(List.of(product.id()));
                         historyDAO.logProductHistory(product.id(), "UPDATE", oldValue, newValue);
-                        logger.info("Product updated, ID: {}", product.id());
+                        logger.info("Product updated, ID: {}, version: {}", product.id(), expectedVersion + 1);
+                        return expectedVersion + 1;
                     }
                 }
-            }
+            });
         } catch (IllegalArgumentException | ExpiredProductException e) {
             logger.warn("Validation failed for update: {}", e.getMessage());
             throw e;
-        } finally {
-            lock.unlock();
         }
     }
 
+    static boolean isUniqueViolation(SQLException e) {
+        return e instanceof SQLiteException sqlite && sqlite.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE;
+    }
+
+    static DuplicateProductException duplicate(Product product) {
+        logger.warn("Duplicate natural key updating product ID: {}", product.id());
+        return new DuplicateProductException(duplicateMessage(product.name(), product.price(), product.expirationDate()));
+    }
+
+    static String duplicateMessage(String name, Money price, LocalDate expirationDate) {
+        return "Another product already has name '" + name + "', price " + price + " and expiration date " + expirationDate;
+    }
+
+    private static ProductVersionConflictException versionConflict(int id, int expected, int current) {
+        logger.warn("Version conflict updating product ID: {}, expected: {}, current: {}", id, expected, current);
+        return new ProductVersionConflictException(
+                "Product with ID " + id + " was modified concurrently (expected version " + expected + ")", current);
+    }
+
     public void deleteProduct(int id) throws SQLException {
-        lock.lock();
-        try {
-            if (id <= 0) {
-                logger.warn("Invalid product ID for delete: {}", id);
-                throw new IllegalArgumentException("Cannot delete product with invalid ID: " + id);
-            }
-            String deleteQuery = "DELETE FROM Product WHERE id = ?";
+        if (id <= 0) {
+            logger.warn("Invalid product ID for delete: {}", id);
+            throw new IllegalArgumentException("Cannot delete product with invalid ID: " + id);
+        }
+        String deleteQuery = "DELETE FROM Product WHERE id = ?";
+        pool.transactions().executeWithoutResult(connection -> {
             try (PreparedStatement stmt = connection.prepareStatement(deleteQuery)) {
                 stmt.setInt(1, id);
                 int rowsAffected = stmt.executeUpdate();
@@ -182,59 +504,175 @@ public class ProductDAO implements AutoCloseable {
                     logger.warn("Product not found for delete, ID: {}", id);
                     throw new SQLException("No product found with ID: " + id);
                 }
+                publishOnCommit(List.of(id));
                 historyDAO.logProductHistory(id, "DELETE", null, null);
                 logger.info("Product deleted, ID: {}", id);
             }
-        } finally {
-            lock.unlock();
-        }
+        });
     }
 
+    /**
+     * Adjusts stock with one conditional UPDATE, so the stock check and the write cannot be
+     * interleaved with another writer and no JVM lock is needed. The history row is written in
+     * the same transaction.
+     * @throws ProductNotFoundException if no product has the given ID
+     * @throws InsufficientStockException if the adjustment would take stock below 0
+     */
     public void adjustStock(int id, int amount) {
-        lock.lock();
+        if (id <= 0) {
+            logger.warn("Invalid product ID for stock adjust: {}", id);
+            throw new IllegalArgumentException("Cannot adjust stock for invalid ID: " + id);
+        }
+
+        String updateQuery = "UPDATE Product SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0 RETURNING stock";
         try {
-            if (id <= 0) {
-                logger.warn("Invalid product ID for stock adjust: {}", id);
-                throw new IllegalArgumentException("Cannot adjust stock for invalid ID: " + id);
+            pool.transactions().executeWithoutResult(connection -> {
+                int newStock;
+                try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
+                    updateStmt.setInt(1, amount);
+                    updateStmt.setInt(2, id);
+                    updateStmt.setInt(3, amount);
+                    try (ResultSet rs = updateStmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw stockAdjustFailure(connection, id, amount);
+                        }
+                        newStock = rs.getInt("stock");
+                    }
+                }
+                int oldStock = newStock - amount;
+                publishOnCommit(List.of(id));
+                historyDAO.logProductHistory(id, "STOCK_ADJUST", "stock: " + oldStock, "stock: " + newStock);
+                logger.info("Stock adjusted, ID: {}, from {} to {}", id, oldStock, newStock);
+            });
+        } catch (SQLException e) {
+            logger.error("Error adjusting stock: {}", e.getMessage(), e);
+            throw new RuntimeException("Error adjusting stock", e);
+        }
+    }
+
+    /**
+     * Zeroes the stock of every product that expired before the given date, logging a
+     * STOCK_ADJUST history row for each, as two set-based statements in one transaction.
+     * @return the number of products whose stock was cleared
+     */
+    public int clearExpiredStock(LocalDate today) {
+        String historyQuery = """
+                INSERT INTO ProductHistory (product_id, action, old_value, new_value)
+                SELECT id, 'STOCK_ADJUST', 'stock: ' || stock, 'stock: 0'
+                FROM Product WHERE expiration_date < ? AND stock > 0""";
+        String updateQuery = "UPDATE Product SET stock = 0, version = version + 1 WHERE expiration_date < ? AND stock > 0 RETURNING id";
+        try {
+            int cleared = pool.transactions().execute(connection -> {
+                // History first, while the old stock values are still there to copy
+                try (PreparedStatement historyStmt = connection.prepareStatement(historyQuery);
+                     PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
+                    historyStmt.setString(1, today.toString());
+                    historyStmt.executeUpdate();
+                    updateStmt.setString(1, today.toString());
+                    List<Integer> ids = new ArrayList<>();
+                    try (ResultSet rs = updateStmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt("id"));
+                        }
+                    }
+                    publishOnCommit(ids);
+                    return ids.size();
+                }
+            });
+            logger.info("Cleared stock for {} products expired before {}", cleared, today);
+            return cleared;
+        } catch (SQLException e) {
+            logger.error("Error clearing expired stock: {}", e.getMessage(), e);
+            throw new RuntimeException("Error clearing expired stock", e);
+        }
+    }
+
+    /**
+     * Applies a mixed list of operations in one transaction, as one JDBC batch per statement
+     * type. In all-or-nothing mode nothing is written if any operation is invalid; in best-effort
+     * mode the valid operations are applied and the rest reported as failed.
+     */
+    public BatchResult applyBatch(List<ProductOperation> operations, boolean atomic) {
+        return applyBatch(operations, atomic, false);
+    }
+
+    /**
+     * Adds (or merges stock into) already validated products in one best-effort batch. Used by
+     * the bulk importer, which validates rows in parallel before they reach the writer.
+     */
+    public BatchResult importProducts(List<Product> products) {
+        List<ProductOperation> operations = products.stream()
+                .map(product -> new ProductOperation(ProductOperation.Type.ADD, null, null, product))
+                .toList();
+        return applyBatch(operations, false, true);
+    }
+
+    private BatchResult applyBatch(List<ProductOperation> operations, boolean atomic, boolean prevalidated) {
+        try {
+            return pool.transactions().execute(connection -> {
+                List<HistoryDAO.Entry> history = new ArrayList<>();
+                BatchResult result = new ProductBatchWriter(connection, operations, atomic, prevalidated).apply(history);
+                publishOnCommit(result.items().stream().map(BatchItemResult::id).filter(Objects::nonNull).toList());
+                historyDAO.logAll(history);
+                return result;
+            });
+        } catch (SQLException e) {
+            logger.error("Error applying product batch: {}", e.getMessage(), e);
+            throw new RuntimeException("Error applying product batch", e);
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Drops the products from the cache and notifies listeners once the current transaction
+     * commits. Evicting after the commit, not before, keeps concurrent readers from re-caching
+     * the old rows; nothing is published for a transaction that rolls back.
+     */
+    private void publishOnCommit(Collection<Integer> ids) {
+        if (ids.isEmpty() || (cache == null && listeners.isEmpty())) {
+            return;
+        }
+        pool.transactions().afterCommit(() -> {
+            if (cache != null) {
+                cache.invalidateAll(ids);
+            }
+            for (ChangeListener listener : listeners) {
+                listener.productsChanged(ids);
             }
+        });
+    }
+
+    /**
+     * @return hit, miss and eviction counters, or null when caching is disabled
+     */
+    public ProductCache.CacheStats cacheStats() {
+        return cache == null ? null : cache.stats();
+    }
 
-            String selectQuery = "SELECT stock FROM Product WHERE id = ?";
-            int currentStock;
-            try (PreparedStatement selectStmt = connection.prepareStatement(selectQuery)) {
-                selectStmt.setInt(1, id);
-                ResultSet rs = selectStmt.executeQuery();
+    /**
+     * Explains why the conditional stock UPDATE matched no row. Only runs on the failure path.
+     */
+    private RuntimeException stockAdjustFailure(Connection connection, int id, int amount) throws SQLException {
+        try (PreparedStatement selectStmt = connection.prepareStatement("SELECT stock FROM Product WHERE id = ?")) {
+            selectStmt.setInt(1, id);
+            try (ResultSet rs = selectStmt.executeQuery()) {
                 if (!rs.next()) {
                     logger.warn("Product not found for stock adjust, ID: {}", id);
-                    throw new SQLException("No product found with ID: " + id);
+                    return new ProductNotFoundException("Product with ID " + id + " not found");
                 }
-                currentStock = rs.getInt("stock");
-            }
-
-            int newStock = currentStock + amount;
-            if (newStock < 0) {
+                int currentStock = rs.getInt("stock");
                 logger.warn("Stock adjustment would go below 0, ID: {}, current: {}, change: {}", id, currentStock, amount);
-                throw new IllegalStateException("Stock cannot go below 0. Current: " + currentStock + ", Attempted change: " + amount);
+                return new InsufficientStockException("Stock cannot go below 0. Current: " + currentStock + ", Attempted change: " + amount);
             }
-
-            String updateQuery = "UPDATE Product SET stock = ? WHERE id = ?";
-            try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
-                updateStmt.setInt(1, newStock);
-                updateStmt.setInt(2, id);
-                updateStmt.executeUpdate();
-                historyDAO.logProductHistory(id, "STOCK_ADJUST", "stock: " + currentStock, "stock: " + newStock);
-                logger.info("Stock adjusted, ID: {}, from {} to {}", id, currentStock, newStock);
-            }
-        } catch (SQLException e) {
-            logger.error("Error adjusting stock: {}", e.getMessage(), e);
-            throw new RuntimeException("Error adjusting stock", e);
-        } finally {
-            lock.unlock();
         }
     }
 
     @Override
     public void close() throws SQLException {
         logger.debug("Closing ProductDAO.");
-        // Connection closed by caller (Main)
+        // Connections are owned by the pool
     }
 }
\ No newline at end of file
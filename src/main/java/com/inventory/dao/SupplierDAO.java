@@ -1,5 +1,6 @@
 package com.inventory.dao;
 
+import com.inventory.database.ConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -7,10 +8,10 @@ import java.sql.*;
 
 public class SupplierDAO implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(SupplierDAO.class);
-    private final Connection connection;
+    private final ConnectionPool pool;
 
-    public SupplierDAO(Connection connection) {
-        this.connection = connection;
+    public SupplierDAO(ConnectionPool pool) {
+        this.pool = pool;
     }
 
     public int insertSupplier(String name, String contactInfo) {
@@ -19,7 +20,8 @@ public class SupplierDAO implements AutoCloseable {
             throw new IllegalArgumentException("Supplier name cannot be empty.");
         }
         String query = "INSERT INTO Supplier (name, contact_info) VALUES (?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (ConnectionPool.Lease lease = pool.write();
+             PreparedStatement stmt = lease.connection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, name);
             stmt.setObject(2, contactInfo, Types.VARCHAR);
             stmt.executeUpdate();
@@ -40,6 +42,6 @@ public class SupplierDAO implements AutoCloseable {
     @Override
     public void close() throws SQLException {
         logger.debug("Closing SupplierDAO.");
-        // Connection closed by caller (Main)
+        // Connections are owned by the pool
     }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.inventory.database;
+
+import com.inventory.config.ConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SQLite-aware connection pool: a fixed set of read-only connections shared by
+ * query paths and a single write connection, matching SQLite's one-writer model.
+ * The write connection is owned by one thread at a time and is re-entrant, so
+ * nested DAO calls on the same thread share it (and any open transaction).
+ * A thread that holds the writer also reads through it, seeing its own uncommitted work.
+ * A shared single-connection pool has no readers, so there every read takes the write lease.
+ * The write lease is the only serialization point for writes: DAOs take no locks of their
+ * own, and wait time on it is reported by {@link #stats()}.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> readers;
+    private final Connection writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final long acquireTimeoutMs;
+    private final TransactionTemplate transactions = new TransactionTemplate(this);
+
+    private final LongAdder readAcquisitions = new LongAdder();
+    private final LongAdder readWaitNanos = new LongAdder();
+    private final AtomicLong maxReadWaitNanos = new AtomicLong();
+    private final LongAdder writeAcquisitions = new LongAdder();
+    private final LongAdder writeWaitNanos = new LongAdder();
+    private final AtomicLong maxWriteWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    private ConnectionPool(Connection writer, List<Connection> readers, long acquireTimeoutMs) {
+        this.writer = writer;
+        this.readers = readers;
+        this.idleReaders = readers.isEmpty() ? null : new ArrayBlockingQueue<>(readers.size(), false, readers);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    /**
+     * Builds the pool from {@code db.pool.readers} (defaults to the number of cores) and
+     * {@code db.pool.timeout.ms}. In-memory databases are private to one connection, so they
+     * fall back to a single shared connection.
+     */
+    public static ConnectionPool fromConfig(ConfigManager config) throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        int readerCount = config.getIntProperty("db.pool.readers", Runtime.getRuntime().availableProcessors());
+        long timeoutMs = config.getIntProperty("db.pool.timeout.ms", 5000);
+
+        String url = manager.getUrl();
+        if (url.contains(":memory:") || url.contains("mode=memory")) {
+            logger.warn("In-memory database URL {}, using a single shared connection.", url);
+            return new ConnectionPool(manager.getConnection(), List.of(), timeoutMs);
+        }
+        if (readerCount < 1) {
+            logger.warn("Invalid db.pool.readers: {}, using 1.", readerCount);
+            readerCount = 1;
+        }
+
+        Connection writer = manager.getWriteConnection();
+        List<Connection> readers = new ArrayList<>(readerCount);
+        try {
+            for (int i = 0; i < readerCount; i++) {
+                readers.add(manager.getReadOnlyConnection());
+            }
+        } catch (SQLException e) {
+            for (Connection reader : readers) {
+                closeQuietly(reader);
+            }
+            closeQuietly(writer);
+            throw e;
+        }
+        logger.info("Connection pool started with {} readers and 1 writer.", readerCount);
+        return new ConnectionPool(writer, readers, timeoutMs);
+    }
+
+    /**
+     * Wraps one connection that serves both reads and writes, as the application did
+     * before pooling. Used for in-memory databases and by tests.
+     */
+    public static ConnectionPool shared(Connection connection) {
+        return new ConnectionPool(connection, List.of(), 5000);
+    }
+
+    /**
+     * Borrows a read-only connection. With no reader pool the only connection is the writer,
+     * so the read takes the write lease: another thread's open transaction on it is never
+     * visible, and its statements never interleave with the read's.
+     */
+    public Lease read() throws SQLException {
+        if (writeLock.isHeldByCurrentThread()) {
+            return new Lease(writer, false);
+        }
+        if (idleReaders == null) {
+            return write();
+        }
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = idleReaders.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+        if (connection == null) {
+            timeouts.increment();
+            logger.warn("Timed out after {} ms waiting for a read connection.", acquireTimeoutMs);
+            throw new SQLException("Timed out waiting for a read connection after " + acquireTimeoutMs + " ms");
+        }
+        record(start, readAcquisitions, readWaitNanos, maxReadWaitNanos);
+        return new Lease(connection, true);
+    }
+
+    public Lease write() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = writeLock.tryLock(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the write connection", e);
+        }
+        if (!acquired) {
+            timeouts.increment();
+            logger.warn("Timed out after {} ms waiting for the write connection.", acquireTimeoutMs);
+            throw new SQLException("Timed out waiting for the write connection after " + acquireTimeoutMs + " ms");
+        }
+        record(start, writeAcquisitions, writeWaitNanos, maxWriteWaitNanos);
+        return new Lease(writer, false) {
+            @Override
+            public void close() {
+                writeLock.unlock();
+            }
+        };
+    }
+
+    /**
+     * The transaction template for this pool's write connection.
+     */
+    public TransactionTemplate transactions() {
+        return transactions;
+    }
+
+    public boolean isWriteHeldByCurrentThread() {
+        return writeLock.isHeldByCurrentThread();
+    }
+
+    private static void record(long start, LongAdder count, LongAdder total, AtomicLong max) {
+        long waited = System.nanoTime() - start;
+        count.increment();
+        total.add(waited);
+        max.accumulateAndGet(waited, Math::max);
+    }
+
+    public PoolStats stats() {
+        return new PoolStats(
+                readers.size(),
+                idleReaders == null ? 0 : idleReaders.size(),
+                readAcquisitions.sum(),
+                averageMillis(readWaitNanos, readAcquisitions),
+                maxReadWaitNanos.get() / 1_000_000.0,
+                writeAcquisitions.sum(),
+                averageMillis(writeWaitNanos, writeAcquisitions),
+                maxWriteWaitNanos.get() / 1_000_000.0,
+                timeouts.sum()
+        );
+    }
+
+    private static double averageMillis(LongAdder totalNanos, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000.0;
+    }
+
+    @Override
+    public void close() {
+        logger.debug("Closing connection pool.");
+        for (Connection reader : readers) {
+            closeQuietly(reader);
+        }
+        closeQuietly(writer);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A borrowed connection. Closing the lease returns it to the pool; the underlying
+     * connection itself stays open.
+     */
+    public class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final boolean pooledReader;
+
+        private Lease(Connection connection, boolean pooledReader) {
+            this.connection = connection;
+            this.pooledReader = pooledReader;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        @Override
+        public void close() {
+            if (pooledReader) {
+                idleReaders.offer(connection);
+            }
+        }
+    }
+
+    public record PoolStats(int readers, int idleReaders,
+                            long readAcquisitions, double avgReadWaitMs, double maxReadWaitMs,
+                            long writeAcquisitions, double avgWriteWaitMs, double maxWriteWaitMs,
+                            long timeouts) { }
+}
@@ -3,6 +3,7 @@ package com.inventory.database;
 import com.inventory.config.ConfigManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -11,6 +12,7 @@ import java.sql.SQLException;
 public class DatabaseManager {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
     private static final String URL = ConfigManager.getInstance().getProperty("db.url", "jdbc:sqlite:inventory.sqlite");
+    private static final int BUSY_TIMEOUT_MS = ConfigManager.getInstance().getIntProperty("db.busy.timeout.ms", 5000);
     private static final String DRIVER = "org.sqlite.JDBC";
     private static DatabaseManager instance;
 
@@ -31,9 +33,40 @@ public class DatabaseManager {
         return instance;
     }
 
+    public String getUrl() {
+        return URL;
+    }
+
     public Connection getConnection() throws SQLException {
         Connection conn = DriverManager.getConnection(URL);
         logger.debug("Database connection established.");
         return conn;
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens the connection that performs all writes. Switches the database to WAL so readers
+     * never block behind the writer, and relaxes fsync to once per WAL checkpoint.
+     */
+    public Connection getWriteConnection() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(BUSY_TIMEOUT_MS);
+        Connection conn = config.createConnection(URL);
+        logger.debug("Write connection established (WAL).");
+        return conn;
+    }
+
+    /**
+     * Opens a read-only connection. The journal mode is owned by the write connection,
+     * so it must have been opened first.
+     */
+    public Connection getReadOnlyConnection() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(BUSY_TIMEOUT_MS);
+        Connection conn = config.createConnection(URL);
+        logger.debug("Read-only connection established.");
+        return conn;
+    }
+}
@@ -0,0 +1,104 @@
+package com.inventory.database;
+
+import java.util.List;
+
+/**
+ * All schema migrations, in version order. Statements must be safe to run against
+ * databases created before migrations existed, hence the IF NOT EXISTS guards.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    public static final List<Migration> ALL = List.of(
+            new Migration(1, "Create base tables",
+                    """
+                    CREATE TABLE IF NOT EXISTS Product (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL,
+                        price REAL NOT NULL,
+                        stock INTEGER NOT NULL,
+                        expiration_date TEXT NOT NULL,
+                        discounted BOOLEAN NOT NULL DEFAULT 0,
+                        category_id INTEGER,
+                        supplier_id INTEGER,
+                        FOREIGN KEY (category_id) REFERENCES Category(id),
+                        FOREIGN KEY (supplier_id) REFERENCES Supplier(id)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS Category (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL UNIQUE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS Supplier (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL UNIQUE,
+                        contact_info TEXT
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS ProductHistory (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        product_id INTEGER NOT NULL,
+                        action TEXT NOT NULL,
+                        old_value TEXT,
+                        new_value TEXT,
+                        timestamp TEXT NOT NULL DEFAULT (CURRENT_TIMESTAMP),
+                        FOREIGN KEY (product_id) REFERENCES Product(id)
+                    )
+                    """),
+            new Migration(2, "Index natural key, expiration date and product history",
+                    "CREATE INDEX IF NOT EXISTS idx_product_name_price_expiration ON Product (name, price, expiration_date)",
+                    "CREATE INDEX IF NOT EXISTS idx_product_expiration ON Product (expiration_date)",
+                    "CREATE INDEX IF NOT EXISTS idx_history_product_timestamp ON ProductHistory (product_id, timestamp)"),
+            // SQLite appends the rowid (Product.id) to every index entry, so an index on (x)
+            // is ordered by (x, id) and serves the (sort key, id) seek of paged listings.
+            new Migration(3, "Index product listing filters and sort keys",
+                    "CREATE INDEX IF NOT EXISTS idx_product_category_name ON Product (category_id, name)",
+                    "CREATE INDEX IF NOT EXISTS idx_product_supplier_name ON Product (supplier_id, name)",
+                    "CREATE INDEX IF NOT EXISTS idx_product_price ON Product (price)",
+                    "CREATE INDEX IF NOT EXISTS idx_product_stock ON Product (stock)"),
+            new Migration(4, "Add product version for optimistic concurrency",
+                    "ALTER TABLE Product ADD COLUMN version INTEGER NOT NULL DEFAULT 1"),
+            // Rows that duplicate a natural key (possible before the DAO used an upsert) are merged
+            // into the lowest id, summing stock and keeping their history, before the key is made unique.
+            new Migration(5, "Make the product natural key unique",
+                    """
+                    UPDATE Product SET stock = (SELECT SUM(d.stock) FROM Product d
+                                                WHERE d.name = Product.name AND d.price = Product.price
+                                                  AND d.expiration_date = Product.expiration_date)
+                    WHERE id IN (SELECT MIN(id) FROM Product GROUP BY name, price, expiration_date HAVING COUNT(*) > 1)
+                    """,
+                    """
+                    UPDATE ProductHistory SET product_id = (SELECT MIN(k.id) FROM Product d
+                                                            JOIN Product k ON k.name = d.name AND k.price = d.price
+                                                                          AND k.expiration_date = d.expiration_date
+                                                            WHERE d.id = ProductHistory.product_id)
+                    WHERE product_id IN (SELECT id FROM Product
+                                         WHERE id NOT IN (SELECT MIN(id) FROM Product GROUP BY name, price, expiration_date))
+                    """,
+                    "DELETE FROM Product WHERE id NOT IN (SELECT MIN(id) FROM Product GROUP BY name, price, expiration_date)",
+                    "DROP INDEX IF EXISTS idx_product_name_price_expiration",
+                    "CREATE UNIQUE INDEX idx_product_name_price_expiration ON Product (name, price, expiration_date)"),
+            // A null category or supplier matches any; amount is basis points for PERCENT, cents for FLAT
+            new Migration(6, "Create discount rules",
+                    """
+                    CREATE TABLE IF NOT EXISTS DiscountRule (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        category_id INTEGER,
+                        supplier_id INTEGER,
+                        min_days INTEGER NOT NULL,
+                        max_days INTEGER NOT NULL,
+                        type TEXT NOT NULL CHECK (type IN ('PERCENT', 'FLAT')),
+                        amount INTEGER NOT NULL,
+                        priority INTEGER NOT NULL DEFAULT 0,
+                        FOREIGN KEY (category_id) REFERENCES Category(id),
+                        FOREIGN KEY (supplier_id) REFERENCES Supplier(id)
+                    )
+                    """)
+    );
+}
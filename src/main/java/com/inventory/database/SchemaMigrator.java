@@ -0,0 +1,102 @@
+package com.inventory.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies pending {@link Migration}s in version order, each in its own transaction, and
+ * verifies the checksums of migrations that were already applied.
+ */
+public class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() <= migrations.get(i - 1).version()) {
+                throw new IllegalArgumentException("Migrations must be in strictly increasing version order, found V"
+                        + migrations.get(i).version() + " after V" + migrations.get(i - 1).version());
+            }
+        }
+        this.migrations = migrations;
+    }
+
+    /**
+     * @return the number of migrations applied
+     * @throws SQLException if a migration fails or an applied migration no longer matches its checksum
+     */
+    public int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    checksum TEXT NOT NULL,
+                    applied_at TEXT NOT NULL DEFAULT (CURRENT_TIMESTAMP)
+                )
+            """);
+        }
+
+        Map<Integer, String> applied = loadApplied(conn);
+        int latestKnown = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+        applied.keySet().stream()
+                .filter(version -> version > latestKnown)
+                .forEach(version -> logger.warn("Database has migration V{} which this build does not know about.", version));
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (!checksum.equals(migration.checksum())) {
+                    throw new SQLException("Checksum mismatch for applied migration V" + migration.version()
+                            + " (" + migration.description() + ")");
+                }
+                continue;
+            }
+            apply(conn, migration);
+            count++;
+        }
+        logger.info("Schema is up to date, applied {} migration(s).", count);
+        return count;
+    }
+
+    private Map<Integer, String> loadApplied(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        logger.info("Applying migration V{}: {}", migration.version(), migration.description());
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)")) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.setString(3, migration.checksum());
+            record.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            logger.error("Migration V{} failed: {}", migration.version(), e.getMessage(), e);
+            throw new SQLException("Migration V" + migration.version() + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
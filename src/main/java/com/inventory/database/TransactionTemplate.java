@@ -0,0 +1,109 @@
+package com.inventory.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a unit of work on the write connection inside one transaction. Calls made inside the
+ * work (including DAO methods that use a transaction themselves) join it, so related writes
+ * share a single commit. Only the outermost call commits or rolls back.
+ */
+public class TransactionTemplate {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionTemplate.class);
+
+    private final ConnectionPool pool;
+    // Non-null while the current thread is inside a transaction; holds its after-commit actions
+    private final ThreadLocal<List<Runnable>> afterCommit = new ThreadLocal<>();
+
+    TransactionTemplate(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T doInTransaction(Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface TransactionWork {
+        void doInTransaction(Connection connection) throws SQLException;
+    }
+
+    public <T> T execute(TransactionCallback<T> work) throws SQLException {
+        if (inTransaction()) {
+            try (ConnectionPool.Lease lease = pool.write()) {
+                return work.doInTransaction(lease.connection());
+            }
+        }
+
+        List<Runnable> actions = new ArrayList<>();
+        T result;
+        try (ConnectionPool.Lease lease = pool.write()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            afterCommit.set(actions);
+            try {
+                result = work.doInTransaction(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException | Error e) {
+                rollback(connection, e);
+                throw e;
+            } finally {
+                afterCommit.remove();
+                connection.setAutoCommit(true);
+            }
+        }
+        // Run once the write connection is released, so actions may wait on other writers
+        runAll(actions);
+        return result;
+    }
+
+    public void executeWithoutResult(TransactionWork work) throws SQLException {
+        execute(connection -> {
+            work.doInTransaction(connection);
+            return null;
+        });
+    }
+
+    public boolean inTransaction() {
+        return afterCommit.get() != null;
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away if there is none.
+     * Actions registered in a transaction that rolls back are discarded.
+     */
+    public void afterCommit(Runnable action) {
+        List<Runnable> actions = afterCommit.get();
+        if (actions == null) {
+            action.run();
+        } else {
+            actions.add(action);
+        }
+    }
+
+    private static void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+            logger.debug("Transaction rolled back: {}", cause.getMessage());
+        } catch (SQLException e) {
+            logger.error("Rollback failed: {}", e.getMessage(), e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.error("After-commit action failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
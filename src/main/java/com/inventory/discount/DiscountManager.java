@@ -2,64 +2,148 @@ package com.inventory.discount;
 
 import com.inventory.config.ConfigManager;
 import com.inventory.dao.ProductDAO;
+import com.inventory.model.DiscountPreview;
+import com.inventory.model.DiscountRunResult;
+import com.inventory.model.Money;
 import com.inventory.model.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class DiscountManager {
     private static final Logger logger = LoggerFactory.getLogger(DiscountManager.class);
     private final ProductDAO productDAO;
-    private final int EXPIRATION_THRESHOLD_DAYS;
-    private final BigDecimal NEAR_EXPIRY_DISCOUNT_PERCENT;
+    private final DiscountRuleEngine ruleEngine;
+    private final int BATCH_SIZE;
 
+    /**
+     * Discounts by the configured near-expiry rule alone, without the DiscountRule table.
+     */
     public DiscountManager(ProductDAO productDAO) {
+        this(productDAO, new DiscountRuleEngine(List::of,
+                DiscountRuleEngine.configuredFallback(ConfigManager.getInstance()), 0));
+    }
+
+    public DiscountManager(ProductDAO productDAO, DiscountRuleEngine ruleEngine) {
         this.productDAO = productDAO;
-        ConfigManager config = ConfigManager.getInstance();
-        this.EXPIRATION_THRESHOLD_DAYS = config.getIntProperty("discount.expiration.threshold.days", 30);
-        this.NEAR_EXPIRY_DISCOUNT_PERCENT = BigDecimal.valueOf(
-                config.getDoubleProperty("discount.near.expiry.percent", 20)
-        );
-        logger.debug("Initialized with threshold: {} days, discount: {}%",
-                EXPIRATION_THRESHOLD_DAYS, NEAR_EXPIRY_DISCOUNT_PERCENT);
+        this.ruleEngine = ruleEngine;
+        this.BATCH_SIZE = ConfigManager.getInstance().getIntProperty("discount.batch.size", 500);
+        logger.debug("Initialized with batch size: {}", BATCH_SIZE);
     }
 
     public int applyDynamicDiscounts() {
-        logger.debug("Applying dynamic discounts to all products.");
-        int productsDiscounted = 0;
-        List<Product> products = productDAO.getAllProducts(false);
-        DiscountService discountService = new DiscountService(productDAO);
+        return runDynamicDiscounts().discounted();
+    }
 
-        for (Product product : products) {
-            if (!product.discounted()) {
-                DiscountStrategy strategy = determineDiscountStrategy(product);
+    /**
+     * Discounts every undiscounted product that a discount rule matches. Candidates are read in
+     * ID order, {@code discount.batch.size} at a time, up to the furthest expiry any rule
+     * reaches; each chunk is priced on the calling thread, a table lookup per product, and
+     * written back in one batched transaction. The whole run uses the rules loaded when it
+     * started.
+     */
+    public DiscountRunResult runDynamicDiscounts() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        DiscountRuleEngine.Rules rules = ruleEngine.current();
+        LocalDate until = today.plusDays(rules.maxDays());
+        logger.debug("Applying dynamic discounts to products expiring after {} and by {}.", today, until);
+
+        DiscountService discountService = new DiscountService(productDAO);
+        int candidates = 0;
+        int discounted = 0;
+        int batches = 0;
+        int afterId = 0;
+        List<Product> chunk;
+        while (!(chunk = productDAO.findDiscountCandidates(today, until, afterId, BATCH_SIZE)).isEmpty()) {
+            List<Product> originals = new ArrayList<>(chunk.size());
+            List<Product> discountedProducts = new ArrayList<>(chunk.size());
+            for (Product product : chunk) {
+                DiscountStrategy strategy = rules.strategyFor(product, today);
                 if (strategy != null) {
-                    discountService.applyAndSaveDiscount(product, strategy);
-                    productsDiscounted++;
-                    logger.info("Discount applied to product ID: {}", product.id());
+                    originals.add(product);
+                    discountedProducts.add(discountService.applyDiscount(product, strategy));
                 }
-            } else {
-                logger.debug("Skipping already discounted product ID: {}", product.id());
             }
+            if (!originals.isEmpty()) {
+                discounted += productDAO.saveDiscountedPrices(originals, discountedProducts);
+            }
+            candidates += chunk.size();
+            batches++;
+            afterId = chunk.get(chunk.size() - 1).id();
         }
-        logger.info("Applied discounts to {} products.", productsDiscounted);
-        return productsDiscounted;
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        DiscountRunResult result = new DiscountRunResult(candidates, discounted, candidates - discounted, batches, elapsedMs);
+        logger.info("Applied discounts to {} of {} candidate products in {} batches, {} ms.",
+                discounted, candidates, batches, elapsedMs);
+        return result;
     }
 
-    private DiscountStrategy determineDiscountStrategy(Product product) {
+    /**
+     * Works out what {@link #runDynamicDiscounts()} would do to the given catalog, without
+     * writing anything. Products are priced in parallel on the fork-join pool against the
+     * current rules. A real run may discount fewer, since it skips rows that change or collide
+     * with another product's natural key before the write.
+     * @param catalog every product, in ID order
+     * @param lines receives each product that would be discounted, in catalog order, or null
+     */
+    public DiscountPreview previewDynamicDiscounts(List<Product> catalog, Consumer<DiscountPreview.Line> lines) {
+        long start = System.nanoTime();
         LocalDate today = LocalDate.now();
-        long daysUntilExpiry = ChronoUnit.DAYS.between(today, product.expirationDate());
+        DiscountRuleEngine.Rules rules = ruleEngine.current();
+
+        Stream<DiscountPreview.Line> priced = catalog.parallelStream()
+                .filter(product -> !product.discounted())
+                .map(product -> {
+                    DiscountStrategy strategy = rules.strategyFor(product, today);
+                    return strategy == null ? null : new DiscountPreview.Line(product.id(), product.name(),
+                            product.categoryId(), product.stock(), product.price(),
+                            DiscountService.discountedPrice(product.price(), strategy));
+                })
+                .filter(Objects::nonNull);
+        PreviewTotals totals;
+        if (lines == null) {
+            totals = priced.collect(PreviewTotals::new, PreviewTotals::add, PreviewTotals::merge);
+        } else {
+            // Pricing stays parallel; only the cheap sums run in order on the consuming thread
+            PreviewTotals ordered = new PreviewTotals();
+            priced.forEachOrdered(line -> {
+                ordered.add(line);
+                lines.accept(line);
+            });
+            totals = ordered;
+        }
 
-        if (daysUntilExpiry <= EXPIRATION_THRESHOLD_DAYS && daysUntilExpiry > 0) {
-            logger.debug("Product ID: {} qualifies for near-expiry discount ({} days).", product.id(), daysUntilExpiry);
-            return new PercentageDiscountStrategy(NEAR_EXPIRY_DISCOUNT_PERCENT);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        DiscountPreview preview = totals.toPreview(catalog.size(), elapsedMs);
+        logger.info("Previewed discounts: {} of {} products, markdown {}, {} ms.",
+                preview.discounted(), catalog.size(), preview.markdown(), elapsedMs);
+        return preview;
+    }
+
+    private DiscountStrategy determineDiscountStrategy(Product product) {
+        LocalDate today = LocalDate.now();
+        DiscountStrategy strategy = ruleEngine.strategyFor(product, today);
+        if (strategy != null) {
+            logger.debug("Product ID: {} matches a discount rule ({} days).", product.id(),
+                    ChronoUnit.DAYS.between(today, product.expirationDate()));
+        } else {
+            logger.debug("No discount strategy for product ID: {}, days until expiry: {}", product.id(),
+                    ChronoUnit.DAYS.between(today, product.expirationDate()));
         }
-        logger.debug("No discount strategy for product ID: {}, days until expiry: {}", product.id(), daysUntilExpiry);
-        return null;
+        return strategy;
     }
 
     public Product applyDynamicDiscount(int id) {
@@ -69,8 +153,7 @@ public class DiscountManager {
             DiscountService discountService = new DiscountService(productDAO);
             DiscountStrategy strategy = determineDiscountStrategy(product);
             if (strategy != null) {
-                discountService.applyAndSaveDiscount(product, strategy);
-                Product updated = getProductById(id);
+                Product updated = discountService.applyAndSaveDiscount(product, strategy);
                 logger.info("Discount applied to product ID: {}, new price: {}", id, updated.price());
                 return updated;
             }
@@ -80,9 +163,7 @@ public class DiscountManager {
     }
 
     private Product getProductById(int id) {
-        Product product = productDAO.getAllProducts(false).stream()
-                .filter(p -> p.id() == id)
-                .findFirst()
+        Product product = productDAO.findById(id)
                 .orElseThrow(() -> {
                     logger.warn("Product not found for discount, ID: {}", id);
                     return new IllegalArgumentException("No product found with ID: " + id);
@@ -90,4 +171,54 @@ public class DiscountManager {
         logger.debug("Retrieved product ID: {} for discount check.", id);
         return product;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sums for a preview, overall and per category, in whole cents.
+     */
+    private static final class PreviewTotals {
+        private final Map<Integer, Sums> byCategory = new LinkedHashMap<>();
+        private final Sums total = new Sums();
+
+        void add(DiscountPreview.Line line) {
+            total.add(line);
+            byCategory.computeIfAbsent(line.categoryId(), c -> new Sums()).add(line);
+        }
+
+        void merge(PreviewTotals other) {
+            total.merge(other.total);
+            other.byCategory.forEach((category, sums) -> byCategory.computeIfAbsent(category, c -> new Sums()).merge(sums));
+        }
+
+        DiscountPreview toPreview(int scanned, long elapsedMs) {
+            List<DiscountPreview.CategoryMarkdown> categories = new ArrayList<>(byCategory.size());
+            byCategory.forEach((category, sums) -> categories.add(new DiscountPreview.CategoryMarkdown(category,
+                    sums.products, sums.units, Money.ofCents(sums.before), Money.ofCents(sums.after),
+                    Money.ofCents(sums.before - sums.after))));
+            categories.sort(Comparator.comparing(DiscountPreview.CategoryMarkdown::categoryId,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            return new DiscountPreview(scanned, total.products, total.units, Money.ofCents(total.before),
+                    Money.ofCents(total.after), Money.ofCents(total.before - total.after), categories, elapsedMs);
+        }
+    }
+
+    private static final class Sums {
+        int products;
+        long units;
+        long before;
+        long after;
+
+        void add(DiscountPreview.Line line) {
+            products++;
+            units += line.stock();
+            before += line.stock() * line.price().cents();
+            after += line.stock() * line.discountedPrice().cents();
+        }
+
+        void merge(Sums other) {
+            products += other.products;
+            units += other.units;
+            before += other.before;
+            after += other.after;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.inventory.discount;
+
+import com.inventory.config.ConfigManager;
+import com.inventory.dao.DiscountRuleDAO;
+import com.inventory.model.DiscountRule;
+import com.inventory.model.Money;
+import com.inventory.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Resolves products to discount strategies from the DiscountRule table, plus an optional
+ * fallback rule from configuration that applies wherever no table rule does. Rules are
+ * compiled into an immutable {@link Rules}, which {@link #reload()} replaces without a
+ * restart; a discount run holds on to the version it started with. With a reload interval
+ * set, the table is also polled so rules edited directly in the database take effect.
+ */
+public class DiscountRuleEngine implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DiscountRuleEngine.class);
+
+    private final Supplier<List<DiscountRule>> source;
+    private final DiscountRule fallback;
+    private final AtomicReference<Rules> current = new AtomicReference<>();
+    private final ScheduledExecutorService poller;
+
+    /**
+     * @param source loads the table rules; called on every reload
+     * @param fallback rule applied where no table rule matches, or null for none
+     * @param reloadIntervalMs how often to poll the source, or 0 to reload only on request
+     */
+    public DiscountRuleEngine(Supplier<List<DiscountRule>> source, DiscountRule fallback, long reloadIntervalMs) {
+        this.source = source;
+        this.fallback = fallback;
+        reload();
+        if (reloadIntervalMs > 0) {
+            poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "discount-rule-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::poll, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            poller = null;
+        }
+    }
+
+    public static DiscountRuleEngine fromConfig(DiscountRuleDAO ruleDAO, ConfigManager config) {
+        return new DiscountRuleEngine(ruleDAO::findAll, configuredFallback(config),
+                config.getIntProperty("discount.rules.reload.interval.ms", 60_000));
+    }
+
+    /**
+     * The near-expiry discount from {@code discount.expiration.threshold.days} and
+     * {@code discount.near.expiry.percent}, or null if either is not positive. A threshold
+     * beyond {@link DiscountRule#MAX_DAYS} is lowered to it.
+     */
+    public static DiscountRule configuredFallback(ConfigManager config) {
+        int thresholdDays = config.getIntProperty("discount.expiration.threshold.days", 30);
+        if (thresholdDays > DiscountRule.MAX_DAYS) {
+            logger.warn("discount.expiration.threshold.days={} exceeds {}; using {}.",
+                    thresholdDays, DiscountRule.MAX_DAYS, DiscountRule.MAX_DAYS);
+            thresholdDays = DiscountRule.MAX_DAYS;
+        }
+        BigDecimal percent = BigDecimal.valueOf(config.getDoubleProperty("discount.near.expiry.percent", 20));
+        if (thresholdDays < 1 || percent.signum() <= 0) {
+            return null;
+        }
+        return new DiscountRule(0, null, null, 1, thresholdDays, DiscountRule.Type.PERCENT,
+                Money.basisPoints(percent), Integer.MIN_VALUE);
+    }
+
+    public Rules current() {
+        return current.get();
+    }
+
+    public DiscountStrategy strategyFor(Product product, LocalDate today) {
+        return current.get().strategyFor(product, today);
+    }
+
+    /**
+     * Loads and compiles the rules and swaps them in. Serialized, so a slow load cannot
+     * overwrite a newer one.
+     */
+    public synchronized Rules reload() {
+        Rules rules = Rules.compile(source.get(), fallback);
+        current.set(rules);
+        logger.info("Loaded {} discount rules, reaching {} days before expiry.", rules.rules().size(), rules.maxDays());
+        return rules;
+    }
+
+    private synchronized void poll() {
+        try {
+            List<DiscountRule> loaded = source.get();
+            if (!loaded.equals(current.get().tableRules)) {
+                current.set(Rules.compile(loaded, fallback));
+                logger.info("Discount rules changed; reloaded {} rules.", loaded.size());
+            }
+        } catch (RuntimeException e) {
+            // Keep evaluating with the last good rules
+            logger.error("Failed to reload discount rules: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * One compiled version of the rules. For each (category, supplier) key that has rules, an
+     * array indexed by days to expiry holds the winning rule's strategy, so resolving a product
+     * is at most four map lookups (exact, category only, supplier only, neither) and an array
+     * read. Rules with the same type and amount share one strategy instance.
+     */
+    public static final class Rules {
+        private static final int ANY = 0;
+
+        private final List<DiscountRule> tableRules;
+        private final List<DiscountRule> rules;
+        private final Map<Long, DiscountStrategy[]> byKey;
+        private final int maxDays;
+
+        private Rules(List<DiscountRule> tableRules, List<DiscountRule> rules,
+                      Map<Long, DiscountStrategy[]> byKey, int maxDays) {
+            this.tableRules = tableRules;
+            this.rules = rules;
+            this.byKey = byKey;
+            this.maxDays = maxDays;
+        }
+
+        static Rules compile(List<DiscountRule> tableRules, DiscountRule fallback) {
+            List<DiscountRule> ordered = new ArrayList<>(tableRules);
+            ordered.sort(Comparator.comparingInt(DiscountRule::priority).reversed().thenComparingInt(DiscountRule::id));
+            if (fallback != null) {
+                ordered.add(fallback);
+            }
+            int maxDays = ordered.stream().mapToInt(DiscountRule::maxDays).max().orElse(0);
+
+            Map<Long, DiscountStrategy[]> byKey = new HashMap<>();
+            Map<StrategyKey, DiscountStrategy> strategies = new HashMap<>();
+            for (DiscountRule rule : ordered) {
+                DiscountStrategy[] byDays = byKey.computeIfAbsent(
+                        key(orAny(rule.categoryId()), orAny(rule.supplierId())), k -> new DiscountStrategy[maxDays + 1]);
+                DiscountStrategy strategy = strategies.computeIfAbsent(
+                        new StrategyKey(rule.type(), rule.amount()), Rules::strategy);
+                // Earlier rules take precedence, so only fill days no earlier rule claimed
+                for (int day = rule.minDays(); day <= rule.maxDays(); day++) {
+                    if (byDays[day] == null) {
+                        byDays[day] = strategy;
+                    }
+                }
+            }
+            return new Rules(List.copyOf(tableRules), List.copyOf(ordered), byKey, maxDays);
+        }
+
+        /**
+         * @return the strategy of the most specific matching rule, or null if none applies
+         */
+        public DiscountStrategy strategyFor(Product product, LocalDate today) {
+            long days = product.expirationDate().toEpochDay() - today.toEpochDay();
+            if (days < 1 || days > maxDays) {
+                return null;
+            }
+            int day = (int) days;
+            int category = orAny(product.categoryId());
+            int supplier = orAny(product.supplierId());
+            DiscountStrategy strategy = null;
+            if (category != ANY && supplier != ANY) {
+                strategy = lookup(key(category, supplier), day);
+            }
+            if (strategy == null && category != ANY) {
+                strategy = lookup(key(category, ANY), day);
+            }
+            if (strategy == null && supplier != ANY) {
+                strategy = lookup(key(ANY, supplier), day);
+            }
+            return strategy != null ? strategy : lookup(key(ANY, ANY), day);
+        }
+
+        /**
+         * @return the furthest days to expiry any rule reaches; products expiring later never
+         * match, so discount runs need not read them
+         */
+        public int maxDays() {
+            return maxDays;
+        }
+
+        /**
+         * @return every rule in precedence order, including the fallback
+         */
+        public List<DiscountRule> rules() {
+            return rules;
+        }
+
+        private DiscountStrategy lookup(long key, int day) {
+            DiscountStrategy[] byDays = byKey.get(key);
+            return byDays == null ? null : byDays[day];
+        }
+
+        // Category and supplier IDs are positive, so 0 is free to mean "any"
+        private static int orAny(Integer id) {
+            return id == null ? ANY : id;
+        }
+
+        private static long key(int categoryId, int supplierId) {
+            return ((long) categoryId << 32) | (supplierId & 0xFFFFFFFFL);
+        }
+
+        private static DiscountStrategy strategy(StrategyKey key) {
+            return switch (key.type()) {
+                case PERCENT -> PercentageDiscountStrategy.ofBasisPoints(key.amount());
+                case FLAT -> new FlatDiscountStrategy(Money.ofCents(key.amount()));
+            };
+        }
+
+        private record StrategyKey(DiscountRule.Type type, long amount) { }
+    }
+}
@@ -1,17 +1,18 @@
 package com.inventory.discount;
 
 import com.inventory.dao.ProductDAO;
+import com.inventory.model.Money;
 import com.inventory.model.Product;
 import com.inventory.exception.ProductNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.sql.SQLException;
 
 public class DiscountService {
     private static final Logger logger = LoggerFactory.getLogger(DiscountService.class);
+    // The lowest price Product accepts (@ValidateProduct(minValue = 0.01))
+    static final Money MIN_PRICE = Money.ofCents(1);
     private final ProductDAO productDAO;
 
     public DiscountService(ProductDAO productDAO) {
@@ -24,24 +25,22 @@ public class DiscountService {
             throw new IllegalArgumentException("Product and DiscountStrategy cannot be null.");
         }
 
-        BigDecimal originalPrice = BigDecimal.valueOf(product.price());
-        BigDecimal discountedPrice = strategy.applyDiscount(originalPrice)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        if (discountedPrice.compareTo(BigDecimal.ZERO) < 0) {
-            logger.debug("Discounted price for product ID: {} capped at 0 from {}", product.id(), discountedPrice);
-            discountedPrice = BigDecimal.ZERO;
-        }
-
-        Product discountedProduct = new Product(
-                product.id(), product.name(), discountedPrice.doubleValue(), product.stock(),
-                product.expirationDate(), true, product.categoryId(), product.supplierId()
-        );
+        Money discountedPrice = discountedPrice(product.price(), strategy);
+        Product discountedProduct = product.withDiscountedPrice(discountedPrice);
         logger.debug("Applied discount to product ID: {}, new price: {}", product.id(), discountedProduct.price());
         return discountedProduct;
     }
 
-    public void applyAndSaveDiscount(Product product, DiscountStrategy strategy) {
+    /**
+     * @return the strategy's price, raised to the lowest valid price, so a flat discount larger
+     * than the price is saved the same way by the single-product and batch paths
+     */
+    static Money discountedPrice(Money price, DiscountStrategy strategy) {
+        Money discounted = strategy.applyDiscount(price);
+        return discounted.cents() < MIN_PRICE.cents() ? MIN_PRICE : discounted;
+    }
+
+    public Product applyAndSaveDiscount(Product product, DiscountStrategy strategy) {
         if (productDAO == null) {
             logger.error("ProductDAO not initialized in DiscountService.");
             throw new IllegalStateException("ProductDAO not initialized. Use constructor with ProductDAO.");
@@ -50,8 +49,9 @@ public class DiscountService {
         Product discountedProduct = applyDiscount(product, strategy);
 
         try {
-            productDAO.updateProduct(discountedProduct);
+            int version = productDAO.updateProduct(discountedProduct);
             logger.info("Saved discounted product ID: {}", discountedProduct.id());
+            return discountedProduct.withVersion(version);
         } catch (SQLException e) {
             if (e.getMessage().contains("No product found")) {
                 logger.warn("Product not found for discount save, ID: {}", product.id());
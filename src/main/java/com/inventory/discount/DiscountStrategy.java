@@ -1,10 +1,14 @@
 package com.inventory.discount;
 
-import java.math.BigDecimal;
+import com.inventory.model.Money;
 
 /**
  * @author hatzp
  **/
 public interface DiscountStrategy {
-    BigDecimal applyDiscount(BigDecimal price);
+    /**
+     * @return the discounted price, which may be below the lowest valid price or negative;
+     * callers raise it to {@link DiscountService#MIN_PRICE}
+     */
+    Money applyDiscount(Money price);
 }
@@ -1,19 +1,25 @@
 package com.inventory.discount;
 
+import com.inventory.model.Money;
+
 import java.math.BigDecimal;
 
 /**
  * @author hatzp
  **/
 public class FlatDiscountStrategy implements DiscountStrategy{
-    private final BigDecimal discountAmount;
+    private final Money discountAmount;
 
-    public FlatDiscountStrategy(BigDecimal discountAmount){
+    public FlatDiscountStrategy(Money discountAmount){
         this.discountAmount = discountAmount;
     }
 
+    public FlatDiscountStrategy(BigDecimal discountAmount){
+        this(Money.of(discountAmount));
+    }
+
     @Override
-    public BigDecimal applyDiscount(BigDecimal price){
-        return price.subtract(discountAmount);
+    public Money applyDiscount(Money price){
+        return price.minus(discountAmount);
     }
 }
@@ -1,16 +1,29 @@
 package com.inventory.discount;
 
+import com.inventory.model.Money;
+
 import java.math.BigDecimal;
 
 public class PercentageDiscountStrategy implements DiscountStrategy {
-    private final BigDecimal percentage;
+    private final long basisPoints;
 
+    /**
+     * @param percentage percent off, kept to two decimal places (basis points)
+     */
     public PercentageDiscountStrategy(BigDecimal percentage) {
-        this.percentage = percentage;
+        this(Money.basisPoints(percentage));
+    }
+
+    private PercentageDiscountStrategy(long basisPoints) {
+        this.basisPoints = basisPoints;
+    }
+
+    public static PercentageDiscountStrategy ofBasisPoints(long basisPoints) {
+        return new PercentageDiscountStrategy(basisPoints);
     }
 
     @Override
-    public BigDecimal applyDiscount(BigDecimal price) {
-        return price.subtract(price.multiply(percentage).divide(BigDecimal.valueOf(100)));
+    public Money applyDiscount(Money price) {
+        return price.percentOff(basisPoints);
     }
-}
\ No newline at end of file
+}
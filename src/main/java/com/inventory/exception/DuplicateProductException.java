@@ -0,0 +1,11 @@
+package com.inventory.exception;
+
+/**
+ * Thrown when a write would give a product the name, price and expiration date another
+ * product already has.
+ */
+public class DuplicateProductException extends RuntimeException {
+    public DuplicateProductException(String message) {
+        super(message);
+    }
+}
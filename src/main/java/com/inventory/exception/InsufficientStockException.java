@@ -0,0 +1,11 @@
+package com.inventory.exception;
+
+/**
+ * Thrown when a stock adjustment would take a product's stock below zero.
+ */
+public class InsufficientStockException extends IllegalStateException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
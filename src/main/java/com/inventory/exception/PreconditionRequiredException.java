@@ -0,0 +1,11 @@
+package com.inventory.exception;
+
+/**
+ * Thrown when an update names no product version to check against, so it would silently
+ * overwrite whatever another writer stored.
+ */
+public class PreconditionRequiredException extends RuntimeException {
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
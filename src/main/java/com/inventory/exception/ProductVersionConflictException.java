@@ -0,0 +1,20 @@
+package com.inventory.exception;
+
+/**
+ * Thrown when an update was made against a product version that is no longer current.
+ */
+public class ProductVersionConflictException extends RuntimeException {
+    private final int currentVersion;
+
+    public ProductVersionConflictException(String message, int currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * @return the version now stored, or 0 if it could not be determined
+     */
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,12 @@
+package com.inventory.importer;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link CsvReader} when the input is not valid CSV, as opposed to failing to read.
+ */
+public class MalformedCsvException extends IOException {
+    public MalformedCsvException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,365 @@
+package com.inventory.importer;
+
+import com.inventory.config.ConfigManager;
+import com.inventory.dao.ProductDAO;
+import com.inventory.exception.ExpiredProductException;
+import com.inventory.model.BatchItemResult;
+import com.inventory.model.BatchResult;
+import com.inventory.model.ImportResult;
+import com.inventory.model.Money;
+import com.inventory.model.Product;
+import com.inventory.validation.ProductValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a product CSV into the database in three stages: the calling thread parses rows into
+ * chunks, a worker pool validates chunks in parallel, and one writer thread stores valid rows in
+ * fixed-size batches, one transaction each. Stages are joined by a bounded queue, so a slow
+ * database throttles parsing and heap use stays flat whatever the file size. Rows that fail
+ * validation or the write are listed in an error file.
+ */
+public class ProductImporter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImporter.class);
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "price", "stock", "expirationdate");
+    private static final Pattern ERROR_FILE_NAME = Pattern.compile("import-[0-9]{8}-[0-9]{6}-[0-9]+-errors\\.csv");
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // Marks the end of input on the queue; compared by identity
+    private static final Future<List<Row>> END = CompletableFuture.completedFuture(List.of());
+
+    private final ProductDAO productDAO;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final Path errorDir;
+    private final ExecutorService validators;
+    private final ExecutorService writers = Executors.newCachedThreadPool(daemonThreads("import-writer"));
+    private final AtomicInteger imports = new AtomicInteger();
+
+    public ProductImporter(ProductDAO productDAO, int chunkSize, int batchSize, int parallelism, Path errorDir) {
+        if (chunkSize < 1 || batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Chunk size, batch size and parallelism must be positive");
+        }
+        this.productDAO = productDAO;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.queueCapacity = parallelism * 2;
+        this.errorDir = errorDir;
+        this.validators = Executors.newFixedThreadPool(parallelism, daemonThreads("import-validator"));
+    }
+
+    public static ProductImporter fromConfig(ProductDAO productDAO, ConfigManager config) {
+        return new ProductImporter(productDAO,
+                config.getIntProperty("import.chunk.size", 500),
+                config.getIntProperty("import.batch.size", 1000),
+                config.getIntProperty("import.parallelism", Runtime.getRuntime().availableProcessors()),
+                Path.of(config.getProperty("import.error.dir", "./import-errors")));
+    }
+
+    /**
+     * Imports products from CSV with a header row. Columns are matched by name, ignoring case
+     * and underscores: name, price, stock and expirationDate are required; discounted,
+     * categoryId and supplierId are optional. Rows whose natural key already exists add stock.
+     * Input that stops being valid CSV, such as an unterminated quoted field, ends the import
+     * there: the records before it are imported as usual, and the malformed record is
+     * reported in the error file as a failed row, noting that the rest was not read.
+     * @throws IllegalArgumentException if the header is missing or lacks a required column
+     */
+    public ImportResult importCsv(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        String importId = "import-" + LocalDateTime.now().format(ID_FORMAT) + "-" + imports.incrementAndGet();
+        Run run = new Run(importId);
+        BlockingQueue<Future<List<Row>>> pending = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> writer = writers.submit(() -> {
+            run.consume(pending);
+            return null;
+        });
+
+        try (CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)))) {
+            Map<String, Integer> columns = columns(csv.next());
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            try {
+                List<String> fields;
+                while ((fields = csv.next()) != null) {
+                    if (fields.size() == 1 && fields.get(0).isBlank()) {
+                        continue;
+                    }
+                    chunk.add(new Row(csv.recordLine(), fields));
+                    if (chunk.size() == chunkSize) {
+                        List<Row> full = chunk;
+                        enqueue(pending, validators.submit(() -> validate(full, columns)), writer);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            } catch (MalformedCsvException e) {
+                // Earlier batches may already be committed, so report where reading stopped
+                // rather than fail the request with no account of what was stored
+                logger.warn("Import {} stopped at line {}: {}", importId, csv.recordLine(), e.getMessage());
+                Row malformed = new Row(csv.recordLine(), List.of());
+                malformed.error = e.getMessage() + "; the rest of the input was not read";
+                chunk.add(malformed);
+            }
+            if (!chunk.isEmpty()) {
+                List<Row> last = chunk;
+                enqueue(pending, validators.submit(() -> validate(last, columns)), writer);
+            }
+        } finally {
+            enqueue(pending, END, writer);
+        }
+
+        awaitWriter(writer);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        ImportResult result = new ImportResult(run.rowsRead, run.imported, run.failed, run.batches, elapsedMs,
+                elapsedMs == 0 ? run.rowsRead : run.rowsRead * 1000.0 / elapsedMs,
+                run.errorFile == null ? null : run.errorFile.getFileName().toString());
+        logger.info("Import {} finished: {} rows, {} imported, {} failed, {} batches in {} ms ({} rows/s).",
+                importId, result.rowsRead(), result.imported(), result.failed(), result.batches(), elapsedMs,
+                String.format("%.0f", result.rowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Resolves an error file name returned by {@link #importCsv}; other names are rejected.
+     */
+    public Optional<Path> errorFile(String name) {
+        if (name == null || !ERROR_FILE_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = errorDir.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty; expected a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalize(header.get(i)), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing required columns: " + missing);
+        }
+        return columns;
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses and validates one chunk on a worker thread; sets either the product or the error.
+     * Rows that already carry an error are left as they are.
+     */
+    private static List<Row> validate(List<Row> chunk, Map<String, Integer> columns) {
+        for (Row row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            try {
+                Product product = new Product(0,
+                        required(row, columns, "name"),
+                        parse(row, columns, "price", Money::parse),
+                        parse(row, columns, "stock", Integer::parseInt),
+                        parse(row, columns, "expirationdate", LocalDate::parse),
+                        parseBoolean(optional(row, columns, "discounted")),
+                        optionalInt(row, columns, "categoryid"),
+                        optionalInt(row, columns, "supplierid"));
+                ProductValidator.validateProduct(product);
+                row.product = product;
+            } catch (IllegalArgumentException | ExpiredProductException e) {
+                row.error = e.getMessage();
+            }
+        }
+        return chunk;
+    }
+
+    private static String optional(Row row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.fields.size()) {
+            return null;
+        }
+        String value = row.fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String required(Row row, Map<String, Integer> columns, String column) {
+        String value = optional(row, columns, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    private static <T> T parse(Row row, Map<String, Integer> columns, String column, Function<String, T> parser) {
+        String value = required(row, columns, column);
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+        }
+    }
+
+    private static Integer optionalInt(Row row, Map<String, Integer> columns, String column) {
+        return optional(row, columns, column) == null ? null : parse(row, columns, column, Integer::parseInt);
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value == null || value.equalsIgnoreCase("false") || value.equals("0")) {
+            return false;
+        }
+        if (value.equalsIgnoreCase("true") || value.equals("1")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid discounted: '" + value + "'");
+    }
+
+    /**
+     * Blocks while the queue is full (backpressure on the request body), but gives up if the
+     * writer has died so a failed import does not hang the caller.
+     */
+    private static void enqueue(BlockingQueue<Future<List<Row>>> pending, Future<List<Row>> chunk, Future<?> writer) throws IOException {
+        try {
+            while (!pending.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) {
+                    awaitWriter(writer);
+                    throw new IllegalStateException("Import writer stopped early");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing import rows");
+        }
+    }
+
+    private static void awaitWriter(Future<?> writer) throws IOException {
+        try {
+            writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for import writer");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Import failed", cause);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        validators.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private static final class Row {
+        final int line;
+        final List<String> fields;
+        Product product;
+        String error;
+
+        Row(int line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * State of one import, owned by its writer thread until the writer finishes.
+     */
+    private final class Run {
+        private final String importId;
+        private final List<Row> batch = new ArrayList<>(batchSize);
+        private Writer errors;
+        private Path errorFile;
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private int batches;
+
+        Run(String importId) {
+            this.importId = importId;
+        }
+
+        void consume(BlockingQueue<Future<List<Row>>> pending) throws Exception {
+            try {
+                Future<List<Row>> next;
+                while ((next = pending.take()) != END) {
+                    for (Row row : next.get()) {
+                        rowsRead++;
+                        if (row.error != null) {
+                            error(row, row.error);
+                        } else {
+                            batch.add(row);
+                            if (batch.size() >= batchSize) {
+                                flush();
+                            }
+                        }
+                    }
+                }
+                flush();
+            } finally {
+                if (errors != null) {
+                    errors.close();
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            BatchResult result = productDAO.importProducts(batch.stream().map(row -> row.product).toList());
+            batches++;
+            for (BatchItemResult item : result.items()) {
+                if (item.status() == BatchItemResult.Status.OK) {
+                    imported++;
+                } else {
+                    error(batch.get(item.index()), item.error());
+                }
+            }
+            logger.debug("Import {}: stored batch {} of {} rows.", importId, batches, batch.size());
+            batch.clear();
+        }
+
+        private void error(Row row, String message) throws IOException {
+            failed++;
+            if (errors == null) {
+                Files.createDirectories(errorDir);
+                errorFile = errorDir.resolve(importId + "-errors.csv");
+                errors = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8);
+                errors.write("line,error,record\n");
+            }
+            errors.write(CsvReader.format(List.of(String.valueOf(row.line), message, CsvReader.format(row.fields))));
+            errors.write('\n');
+        }
+    }
+}
@@ -2,12 +2,17 @@ package com.inventory.main;
 
 import com.inventory.config.ConfigManager;
 import com.inventory.dao.CategoryDAO;
+import com.inventory.dao.DiscountRuleDAO;
 import com.inventory.dao.HistoryDAO;
+import com.inventory.dao.ProductCache;
 import com.inventory.dao.ProductDAO;
 import com.inventory.dao.SupplierDAO;
+import com.inventory.database.ConnectionPool;
 import com.inventory.database.DatabaseInitializer;
-import com.inventory.database.DatabaseManager;
 import com.inventory.discount.DiscountManager;
+import com.inventory.discount.DiscountRuleEngine;
+import com.inventory.importer.ProductImporter;
+import com.inventory.service.CatalogSnapshot;
 import com.inventory.service.ProductService;
 import com.inventory.service.ProductServiceImpl;
 import org.slf4j.Logger;
@@ -16,9 +21,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.context.annotation.Scope;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 
 /**
@@ -29,7 +32,6 @@ import java.sql.SQLException;
 @ComponentScan(basePackages = "com.inventory")
 public class InventoryApplication {
     public static final Logger logger = LoggerFactory.getLogger(InventoryApplication.class);
-    private static Connection sharedConnection; // Singleton connection
 
     public static void main(String[] args){
         try{
@@ -43,50 +45,62 @@ public class InventoryApplication {
         logger.info("Inventory REST API started on http://localhost:8080");
     }
 
+    @Bean(destroyMethod = "close")
+    public ConnectionPool connectionPool() throws SQLException {
+        return ConnectionPool.fromConfig(configManager());
+    }
+
     @Bean
-    @Scope("singleton") // Explicitly ensure singleton scope
-    public Connection connection() throws SQLException {
-        if (sharedConnection == null || sharedConnection.isClosed()) {
-            sharedConnection = DatabaseManager.getInstance().getConnection();
-            sharedConnection.setAutoCommit(true); // Ensure each operation commits immediately
-            logger.info("Created singleton database connection.");
-        }
-        return sharedConnection;
+    public ProductDAO productDAO(ConnectionPool connectionPool){
+        return new ProductDAO(connectionPool, historyDAO(connectionPool), ProductCache.fromConfig(configManager()));
     }
 
+    // Closed before the pool so queued history is drained while connections are still open
     @Bean(destroyMethod = "close")
-    public Connection connectionCleanup() throws SQLException {
-        return connection(); // Returns the singleton connection for Spring to manage
+    public HistoryDAO historyDAO(ConnectionPool connectionPool){
+        return HistoryDAO.fromConfig(connectionPool, configManager());
     }
 
     @Bean
-    public ProductDAO productDAO(Connection connection){
-        return new ProductDAO(connection, historyDAO(connection));
+    public CategoryDAO categoryDAO(ConnectionPool connectionPool) {
+        return new CategoryDAO(connectionPool);
     }
 
     @Bean
-    public HistoryDAO historyDAO(Connection connection){
-        return new HistoryDAO(connection);
+    public SupplierDAO supplierDAO(ConnectionPool connectionPool) {
+        return new SupplierDAO(connectionPool);
     }
 
     @Bean
-    public CategoryDAO categoryDAO(Connection connection) {
-        return new CategoryDAO(connection);
+    public CatalogSnapshot catalogSnapshot(ProductDAO productDAO) {
+        return CatalogSnapshot.load(productDAO);
     }
 
     @Bean
-    public SupplierDAO supplierDAO(Connection connection) {
-        return new SupplierDAO(connection);
+    public ProductService productService(ProductDAO productDAO, CategoryDAO categoryDAO, SupplierDAO supplierDAO, HistoryDAO historyDAO,
+                                         ConnectionPool connectionPool, CatalogSnapshot catalogSnapshot) {
+        return new ProductServiceImpl(productDAO, categoryDAO, supplierDAO, historyDAO, connectionPool.transactions(),
+                catalogSnapshot);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ProductImporter productImporter(ProductDAO productDAO) {
+        return ProductImporter.fromConfig(productDAO, configManager());
     }
 
     @Bean
-    public ProductService productService(ProductDAO productDAO, CategoryDAO categoryDAO, SupplierDAO supplierDAO, HistoryDAO historyDAO) {
-        return new ProductServiceImpl(productDAO, categoryDAO, supplierDAO, historyDAO);
+    public DiscountRuleDAO discountRuleDAO(ConnectionPool connectionPool) {
+        return new DiscountRuleDAO(connectionPool);
+    }
+
+    @Bean(destroyMethod = "close")
+    public DiscountRuleEngine discountRuleEngine(DiscountRuleDAO discountRuleDAO) {
+        return DiscountRuleEngine.fromConfig(discountRuleDAO, configManager());
     }
 
     @Bean
-    public DiscountManager discountManager(ProductDAO productDAO) {
-        return new DiscountManager(productDAO);
+    public DiscountManager discountManager(ProductDAO productDAO, DiscountRuleEngine discountRuleEngine) {
+        return new DiscountManager(productDAO, discountRuleEngine);
     }
 
     @Bean
@@ -0,0 +1,21 @@
+package com.inventory.model;
+
+/**
+ * Outcome of one operation in a bulk request, reported at the operation's position.
+ */
+public record BatchItemResult(int index, ProductOperation.Type op, Status status, Integer id, String error) {
+
+    public enum Status { OK, FAILED, SKIPPED }
+
+    public static BatchItemResult ok(int index, ProductOperation.Type op, Integer id) {
+        return new BatchItemResult(index, op, Status.OK, id, null);
+    }
+
+    public static BatchItemResult failed(int index, ProductOperation.Type op, Integer id, String error) {
+        return new BatchItemResult(index, op, Status.FAILED, id, error);
+    }
+
+    public static BatchItemResult skipped(int index, ProductOperation.Type op, Integer id) {
+        return new BatchItemResult(index, op, Status.SKIPPED, id, "Not applied: another operation in the batch failed");
+    }
+}
@@ -0,0 +1,15 @@
+package com.inventory.model;
+
+import java.util.List;
+
+/**
+ * Result of a bulk request: whether anything was committed, and one entry per operation.
+ */
+public record BatchResult(boolean committed, int succeeded, int failed, List<BatchItemResult> items) {
+
+    public static BatchResult of(boolean committed, List<BatchItemResult> items) {
+        int succeeded = (int) items.stream().filter(item -> item.status() == BatchItemResult.Status.OK).count();
+        int failed = (int) items.stream().filter(item -> item.status() == BatchItemResult.Status.FAILED).count();
+        return new BatchResult(committed, succeeded, failed, items);
+    }
+}
@@ -0,0 +1,8 @@
+package com.inventory.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Units in stock and their value for one category; categoryId is null for uncategorised products.
+ */
+public record CategoryStockValue(Integer categoryId, long units, BigDecimal value) { }
@@ -0,0 +1,19 @@
+package com.inventory.model;
+
+import java.util.List;
+
+/**
+ * What a dynamic discount run would do to the current catalog. markdown is stock times the
+ * price reduction, the margin given up; categoryId is null for uncategorised products.
+ */
+public record DiscountPreview(int scanned, int discounted, long units, Money valueBefore, Money valueAfter,
+                              Money markdown, List<CategoryMarkdown> byCategory, long elapsedMs) {
+
+    public record CategoryMarkdown(Integer categoryId, int discounted, long units, Money valueBefore,
+                                   Money valueAfter, Money markdown) { }
+
+    /**
+     * One product the run would discount.
+     */
+    public record Line(int id, String name, Integer categoryId, int stock, Money price, Money discountedPrice) { }
+}
@@ -0,0 +1,36 @@
+package com.inventory.model;
+
+/**
+ * A discount applying to products that expire between {@code minDays} and {@code maxDays}
+ * days from today, inclusive. A null category or supplier matches any. {@code amount} is in
+ * basis points for {@link Type#PERCENT} (2000 = 20%) and in cents for {@link Type#FLAT}.
+ * A rule naming both category and supplier beats one naming the category, then the supplier,
+ * then neither; among rules with the same category and supplier, the higher priority wins,
+ * then the lower ID.
+ */
+public record DiscountRule(int id, Integer categoryId, Integer supplierId, int minDays, int maxDays,
+                           Type type, long amount, int priority) {
+    /** Longest days-to-expiry band a rule may cover. */
+    public static final int MAX_DAYS = 366;
+
+    public enum Type { PERCENT, FLAT }
+
+    public DiscountRule {
+        if (type == null) {
+            throw new IllegalArgumentException("Discount rule type is required");
+        }
+        if ((categoryId != null && categoryId < 1) || (supplierId != null && supplierId < 1)) {
+            throw new IllegalArgumentException("Discount rule category and supplier IDs must be positive");
+        }
+        if (minDays < 1 || maxDays < minDays || maxDays > MAX_DAYS) {
+            throw new IllegalArgumentException("Discount rule days must satisfy 1 <= minDays <= maxDays <= " + MAX_DAYS);
+        }
+        if (amount < 0 || (type == Type.PERCENT && amount > Money.BASIS_POINTS)) {
+            throw new IllegalArgumentException("Discount rule amount out of range: " + amount);
+        }
+    }
+
+    public DiscountRule withId(int id) {
+        return new DiscountRule(id, categoryId, supplierId, minDays, maxDays, type, amount, priority);
+    }
+}
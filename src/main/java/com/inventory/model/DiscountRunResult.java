@@ -0,0 +1,7 @@
+package com.inventory.model;
+
+/**
+ * Summary of a catalog-wide discount run. skipped counts candidates that changed or collided
+ * with another product's natural key between selection and write.
+ */
+public record DiscountRunResult(int candidates, int discounted, int skipped, int batches, long elapsedMs) { }
@@ -0,0 +1,8 @@
+package com.inventory.model;
+
+/**
+ * Summary of a CSV import. errorFile names the row-level error report, or is null when
+ * every row was imported.
+ */
+public record ImportResult(long rowsRead, long imported, long failed, int batches,
+                           long elapsedMs, double rowsPerSecond, String errorFile) { }
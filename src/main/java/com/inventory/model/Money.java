@@ -0,0 +1,85 @@
+package com.inventory.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a whole number of cents. Discounts and sums are exact long
+ * arithmetic, rounded half-up to the cent where a division is involved, and the value is a
+ * record over one primitive so repricing loops do no boxing or BigDecimal work.
+ * Serialised to JSON as a decimal with two places.
+ */
+public record Money(long cents) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    /** Basis points in a whole: 10000 bp = 100%. */
+    public static final long BASIS_POINTS = 10_000;
+
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    /**
+     * @return the amount rounded half-up to the cent
+     * @throws ArithmeticException if the amount does not fit in a long number of cents
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money of(double amount) {
+        // valueOf goes through the shortest decimal string, so 1.005 rounds to 1.01, not 1.00
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    /**
+     * Converts a percentage such as 12.5 to basis points, rounding half-up to a whole point.
+     */
+    public static long basisPoints(BigDecimal percent) {
+        return percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * @return this amount less {@code basisPoints} hundredths of a percent of it, rounded
+     * half-up to the cent
+     */
+    public Money percentOff(long basisPoints) {
+        long scaled = Math.multiplyExact(cents, BASIS_POINTS - basisPoints);
+        return new Money(Math.floorDiv(scaled + BASIS_POINTS / 2, BASIS_POINTS));
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public double toDouble() {
+        return cents / 100.0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -6,16 +6,43 @@ import java.time.LocalDate;
 
 /**
  * Immutable Product entity using Java Record.
+ * The version is bumped on every write; 0 means "not known" and skips the optimistic check.
+ * The double-price constructors round to the cent.
  */
 public record Product(@ValidateProduct(notNull = false, minValue = -1) int id,
                       @ValidateProduct(notEmpty = true) String name,
-                      @ValidateProduct(minValue = 0.01) double price,
+                      @ValidateProduct(minValue = 0.01) Money price,
                       @ValidateProduct(minValue = 0) int stock,
                       @ValidateProduct(allowPastDate = false) LocalDate expirationDate ,
                       @ValidateProduct(notNull = true) boolean discounted,
 
                       @ValidateProduct(notNull = false, minValue = 1) Integer categoryId,
 
-                      @ValidateProduct(notNull = false, minValue = 1) Integer supplierId
+                      @ValidateProduct(notNull = false, minValue = 1) Integer supplierId,
 
-){ }
+                      @ValidateProduct(minValue = 0) int version
+
+){
+    public Product(int id, String name, Money price, int stock, LocalDate expirationDate,
+                   boolean discounted, Integer categoryId, Integer supplierId) {
+        this(id, name, price, stock, expirationDate, discounted, categoryId, supplierId, 0);
+    }
+
+    public Product(int id, String name, double price, int stock, LocalDate expirationDate,
+                   boolean discounted, Integer categoryId, Integer supplierId, int version) {
+        this(id, name, Money.of(price), stock, expirationDate, discounted, categoryId, supplierId, version);
+    }
+
+    public Product(int id, String name, double price, int stock, LocalDate expirationDate,
+                   boolean discounted, Integer categoryId, Integer supplierId) {
+        this(id, name, Money.of(price), stock, expirationDate, discounted, categoryId, supplierId, 0);
+    }
+
+    public Product withVersion(int version) {
+        return new Product(id, name, price, stock, expirationDate, discounted, categoryId, supplierId, version);
+    }
+
+    public Product withDiscountedPrice(Money price) {
+        return new Product(id, name, price, stock, expirationDate, true, categoryId, supplierId, version);
+    }
+}
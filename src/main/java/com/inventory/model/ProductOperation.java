@@ -0,0 +1,42 @@
+package com.inventory.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * One entry of a bulk mutation request. {@code add} and {@code update} carry a product;
+ * {@code delete} and {@code adjust} name the product by id, and {@code adjust} also takes
+ * a stock amount.
+ */
+public record ProductOperation(Type op, Integer id, Integer amount, Product product) {
+
+    public enum Type {
+        ADD, UPDATE, ADJUST, DELETE;
+
+        @JsonCreator
+        public static Type fromValue(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unknown operation: " + value);
+            }
+        }
+
+        @JsonValue
+        public String value() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The product id this operation targets, or null for an add.
+     */
+    public Integer targetId() {
+        if (op == Type.UPDATE) {
+            return product == null ? null : product.id();
+        }
+        return op == Type.ADD ? null : id;
+    }
+}
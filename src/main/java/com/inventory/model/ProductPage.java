@@ -0,0 +1,8 @@
+package com.inventory.model;
+
+import java.util.List;
+
+/**
+ * One page of products; nextCursor is null on the last page.
+ */
+public record ProductPage(List<Product> items, String nextCursor) { }
@@ -0,0 +1,75 @@
+package com.inventory.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * A page request for the product listing: optional filters, a sort key with direction,
+ * and the seek position decoded from the previous page's cursor.
+ */
+public record ProductQuery(Integer categoryId,
+                           Integer supplierId,
+                           Integer minStock,
+                           Double maxPrice,
+                           ProductSort sort,
+                           boolean descending,
+                           int limit,
+                           Object afterKey,
+                           Integer afterId) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Builds a query from request parameters.
+     * @param sort sort key name, prefixed with '-' for descending; defaults to ID ascending
+     * @param after opaque cursor returned with the previous page, or null for the first page
+     * @throws IllegalArgumentException if the sort, limit or cursor is invalid
+     */
+    public static ProductQuery of(String after, Integer limit, Integer categoryId, Integer supplierId,
+                                  Integer minStock, Double maxPrice, String sort) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        String sortSpec = sort == null || sort.isBlank() ? "id" : sort.trim();
+        boolean descending = sortSpec.startsWith("-");
+        ProductSort productSort = ProductSort.fromParameter(descending ? sortSpec.substring(1) : sortSpec);
+
+        Object afterKey = null;
+        Integer afterId = null;
+        if (after != null && !after.isBlank()) {
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            int first = decoded.indexOf('|');
+            int last = decoded.lastIndexOf('|');
+            if (first < 0 || first == last || !decoded.substring(0, first).equals(sortSpec(productSort, descending))) {
+                throw new IllegalArgumentException("Cursor does not match sort: " + sortSpec);
+            }
+            try {
+                afterKey = productSort.parseKey(decoded.substring(first + 1, last));
+                afterId = Integer.parseInt(decoded.substring(last + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+        return new ProductQuery(categoryId, supplierId, minStock, maxPrice, productSort, descending, pageSize, afterKey, afterId);
+    }
+
+    /**
+     * Encodes the seek position just past the given product, for use as the next page's cursor.
+     */
+    public String cursorAfter(Product product) {
+        String raw = sortSpec(sort, descending) + "|" + sort.key(product) + "|" + product.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sortSpec(ProductSort sort, boolean descending) {
+        return (descending ? "-" : "") + sort.name();
+    }
+}
@@ -0,0 +1,55 @@
+package com.inventory.model;
+
+import java.util.Locale;
+
+/**
+ * Sort keys supported by paged product listings. Every key is paired with the product ID
+ * as a tie-breaker, so (key, id) is unique and can serve as a seek position.
+ */
+public enum ProductSort {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    STOCK("stock"),
+    EXPIRATION("expiration_date");
+
+    private final String column;
+
+    ProductSort(String column) {
+        this.column = column;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    /**
+     * The value of this key for a product, in the form it is bound to SQL.
+     */
+    public Object key(Product product) {
+        return switch (this) {
+            case ID -> product.id();
+            case NAME -> product.name();
+            case PRICE -> product.price().toDouble();
+            case STOCK -> product.stock();
+            case EXPIRATION -> product.expirationDate().toString();
+        };
+    }
+
+    Object parseKey(String value) {
+        return switch (this) {
+            case ID, STOCK -> Integer.parseInt(value);
+            case PRICE -> Double.parseDouble(value);
+            case NAME, EXPIRATION -> value;
+        };
+    }
+
+    public static ProductSort fromParameter(String name) {
+        for (ProductSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(name) || sort.column.equals(name.toLowerCase(Locale.ROOT))) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + name);
+    }
+}
@@ -0,0 +1,238 @@
+package com.inventory.service;
+
+import com.inventory.dao.ProductDAO;
+import com.inventory.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable in-memory copy of the whole catalog for list and search queries. Readers take the
+ * current {@link Catalog} from an atomic reference and never block or touch JDBC. After each
+ * committed write, the changed rows are re-read and patched into a new catalog, which is
+ * swapped in; refreshes are serialized, so a later commit is never overwritten by an earlier
+ * one. A patch copies only the chunks of the sorted views that the changed rows fall in, so
+ * its cost grows with the number of changed rows, not with the catalog.
+ */
+public class CatalogSnapshot implements ProductDAO.ChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshot.class);
+    private static final Comparator<Product> BY_ID = Comparator.comparingInt(Product::id);
+    private static final Comparator<Product> BY_EXPIRATION = Comparator.comparing(Product::expirationDate)
+            .thenComparingInt(Product::id);
+
+    private final ProductDAO productDAO;
+    private final AtomicReference<Catalog> current = new AtomicReference<>(Catalog.of(0, List.of()));
+    private final Object refreshLock = new Object();
+    // Covers every product in the current catalog, and briefly also ones a refresh is replacing
+    private final TrigramIndex nameIndex = new TrigramIndex();
+    private final PrefixIndex prefixIndex = new PrefixIndex();
+    // Columns of the most recent catalog version anyone asked for; built on demand
+    private final AtomicReference<Columns> columns = new AtomicReference<>();
+
+    public CatalogSnapshot(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+
+    /**
+     * Registers for change notifications, then loads every product. Registering first means a
+     * write that commits during the load is applied afterwards rather than missed.
+     */
+    public static CatalogSnapshot load(ProductDAO productDAO) {
+        CatalogSnapshot snapshot = new CatalogSnapshot(productDAO);
+        productDAO.addChangeListener(snapshot);
+        snapshot.reload();
+        return snapshot;
+    }
+
+    public void reload() {
+        synchronized (refreshLock) {
+            List<Product> products = new ArrayList<>();
+            productDAO.streamAllProducts(products::add);
+            nameIndex.clear();
+            prefixIndex.clear();
+            products.forEach(this::indexName);
+            current.set(Catalog.of(current.get().version() + 1, products));
+            logger.info("Loaded catalog snapshot with {} products.", products.size());
+        }
+    }
+
+    @Override
+    public void productsChanged(Collection<Integer> ids) {
+        synchronized (refreshLock) {
+            Catalog old = current.get();
+            Map<Integer, Product> before = new HashMap<>();
+            for (int id : ids) {
+                Product product = old.get(id);
+                if (product != null) {
+                    before.put(id, product);
+                }
+            }
+            // Deleted products are simply not found
+            Map<Integer, Product> after = new HashMap<>();
+            for (Product product : productDAO.findByIds(ids)) {
+                after.put(product.id(), product);
+            }
+            // Index new names before publishing and drop old ones after, so a reader of either
+            // catalog version finds every product it holds
+            after.values().forEach(this::indexName);
+            current.set(old.with(old.version() + 1, before.values(), after.values()));
+            before.forEach((id, product) -> {
+                Product replacement = after.get(id);
+                String newName = replacement == null ? null : replacement.name();
+                if (product.name().equals(newName)) {
+                    return;
+                }
+                // Entries the new name shares with the old one were just indexed for it
+                nameIndex.remove(id, product.name(), newName);
+                if (newName == null || !TrigramIndex.normalize(newName).equals(TrigramIndex.normalize(product.name()))) {
+                    prefixIndex.remove(id, product.name());
+                }
+            });
+            logger.debug("Catalog snapshot version {} applied {} changed products.", old.version() + 1, ids.size());
+        }
+    }
+
+    private void indexName(Product product) {
+        nameIndex.add(product.id(), product.name());
+        prefixIndex.add(product.id(), product.name());
+    }
+
+    public Catalog current() {
+        return current.get();
+    }
+
+    /**
+     * @return up to {@code limit} products whose name starts with the prefix, ignoring case,
+     * highest stock first and then by name
+     */
+    public List<Product> suggest(String prefix, int limit) {
+        Catalog catalog = current.get();
+        Comparator<Product> ranking = Comparator.comparingInt(Product::stock).reversed()
+                .thenComparing(Product::name).thenComparingInt(Product::id);
+        // Keeps the best `limit` seen so far, with the weakest on top for eviction
+        PriorityQueue<Product> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (PrefixIndex.Entry entry : prefixIndex.withPrefix(TrigramIndex.normalize(prefix))) {
+            Product product = catalog.get(entry.id());
+            // Skips an entry whose product this version does not hold, or holds under another name
+            if (product == null || !TrigramIndex.normalize(product.name()).equals(entry.name())) {
+                continue;
+            }
+            best.add(product);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Product> results = new ArrayList<>(best);
+        results.sort(ranking);
+        return results;
+    }
+
+    /**
+     * @return products whose name contains the fragment, ignoring case, in ID order. Fragments
+     * of three or more characters are answered from the trigram index; shorter ones by a scan.
+     */
+    public List<Product> findByName(String fragment) {
+        Catalog catalog = current.get();
+        String needle = TrigramIndex.normalize(fragment);
+        List<Integer> candidates = nameIndex.candidates(needle);
+        if (candidates == null) {
+            return catalog.findByName(fragment);
+        }
+        List<Product> results = new ArrayList<>();
+        for (int id : candidates) {
+            Product product = catalog.get(id);
+            if (product != null && TrigramIndex.normalize(product.name()).contains(needle)) {
+                results.add(product);
+            }
+        }
+        results.sort(Comparator.comparingInt(Product::id));
+        return results;
+    }
+
+    /**
+     * @return the current catalog in columnar form, built once per catalog version on first use
+     */
+    public ColumnarCatalog columns() {
+        Catalog catalog = current.get();
+        Columns cached = columns.get();
+        if (cached != null && cached.version() == catalog.version()) {
+            return cached.columns();
+        }
+        Columns built = new Columns(catalog.version(), ColumnarCatalog.of(catalog.products()));
+        // A racing builder for a newer version wins; ours is still correct for this caller
+        columns.accumulateAndGet(built, (old, mine) -> old != null && old.version() > mine.version() ? old : mine);
+        return built.columns();
+    }
+
+    private record Columns(long version, ColumnarCatalog columns) { }
+
+    /**
+     * One published version of the catalog. Products are held in ID order and, separately,
+     * in expiration order so date queries are a binary search. Both are {@link SortedChunks},
+     * so a version that changes a few products shares almost all of its storage with the last.
+     */
+    public record Catalog(long version, SortedChunks<Product> products, SortedChunks<Product> byExpiration) {
+
+        static Catalog of(long version, Collection<Product> products) {
+            return new Catalog(version, SortedChunks.of(products, BY_ID), SortedChunks.of(products, BY_EXPIRATION));
+        }
+
+        /**
+         * @param removed products of this version being replaced or deleted
+         * @param added the replacements and new products
+         */
+        Catalog with(long version, Collection<Product> removed, Collection<Product> added) {
+            return new Catalog(version, products.with(removed, added), byExpiration.with(removed, added));
+        }
+
+        /**
+         * @return the product with the ID, or null
+         */
+        public Product get(int id) {
+            return products.find(p -> Integer.compare(p.id(), id));
+        }
+
+        /**
+         * @return products whose name contains the fragment, ignoring case, in ID order
+         */
+        public List<Product> findByName(String fragment) {
+            String needle = TrigramIndex.normalize(fragment);
+            List<Product> results = new ArrayList<>();
+            products.forEach(product -> {
+                if (containsIgnoreCase(product.name(), needle)) {
+                    results.add(product);
+                }
+            });
+            return results;
+        }
+
+        /**
+         * @return products expiring strictly before the date, in ID order
+         */
+        public List<Product> expiringBefore(LocalDate date) {
+            int end = byExpiration.lowerBound(p -> p.expirationDate().isBefore(date) ? -1 : 1);
+            List<Product> results = new ArrayList<>(byExpiration.subList(0, end));
+            results.sort(BY_ID);
+            return results;
+        }
+
+        // Scans without lower-casing, so a short-needle search allocates nothing per product
+        private static boolean containsIgnoreCase(String name, String needle) {
+            for (int i = 0; i + needle.length() <= name.length(); i++) {
+                if (name.regionMatches(true, i, needle, 0, needle.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.inventory.service;
+
+import com.inventory.model.CategoryStockValue;
+import com.inventory.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-per-field copy of one catalog version for scan-heavy aggregates. Every field is a
+ * primitive array indexed by row, so the query loops read contiguous memory and allocate
+ * nothing per row. Prices are whole cents and expiry dates are epoch days. Only the columns
+ * the queries below read are kept. Immutable once built.
+ */
+public final class ColumnarCatalog {
+    // Category of a product that has none
+    private static final int NONE = -1;
+
+    private final int size;
+    private final int[] stock;
+    private final long[] priceCents;
+    private final int[] expiryEpochDay;
+    // Dense index of each row's category into distinctCategories, for array-backed group-bys
+    private final int[] categoryGroup;
+    private final int[] distinctCategories;
+
+    private ColumnarCatalog(Collection<Product> products) {
+        size = products.size();
+        stock = new int[size];
+        priceCents = new long[size];
+        expiryEpochDay = new int[size];
+        categoryGroup = new int[size];
+
+        Map<Integer, Integer> groupByCategory = new HashMap<>();
+        List<Integer> categoryList = new ArrayList<>();
+        int row = 0;
+        for (Product product : products) {
+            stock[row] = product.stock();
+            priceCents[row] = product.price().cents();
+            expiryEpochDay[row] = (int) product.expirationDate().toEpochDay();
+            int categoryId = product.categoryId() == null ? NONE : product.categoryId();
+            categoryGroup[row] = groupByCategory.computeIfAbsent(categoryId, category -> {
+                categoryList.add(category);
+                return categoryList.size() - 1;
+            });
+            row++;
+        }
+        distinctCategories = categoryList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static ColumnarCatalog of(Collection<Product> products) {
+        return new ColumnarCatalog(products);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return units and stock value per category, including a {@code null} category for
+     * uncategorised products, in first-seen order
+     */
+    public List<CategoryStockValue> stockValueByCategory() {
+        long[] units = new long[distinctCategories.length];
+        long[] cents = new long[distinctCategories.length];
+        for (int i = 0; i < size; i++) {
+            int group = categoryGroup[i];
+            units[group] += stock[i];
+            cents[group] += stock[i] * priceCents[i];
+        }
+        List<CategoryStockValue> result = new ArrayList<>(distinctCategories.length);
+        for (int g = 0; g < distinctCategories.length; g++) {
+            result.add(new CategoryStockValue(distinctCategories[g] == NONE ? null : distinctCategories[g],
+                    units[g], BigDecimal.valueOf(cents[g], 2)));
+        }
+        return result;
+    }
+
+    /**
+     * Counts products still in stock that expire after {@code from} and on or before {@code to}.
+     */
+    public int countInStockExpiringBetween(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int day = expiryEpochDay[i];
+            if (day > fromDay && day <= toDay && stock[i] > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,39 @@
+package com.inventory.service;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Product names, case-folded, in sorted order, so every name starting with a prefix is one
+ * contiguous range. Backed by a skip list: single names are added and removed in O(log n)
+ * and readers never block.
+ */
+public class PrefixIndex {
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Entry::name).thenComparingInt(Entry::id));
+
+    public void add(int id, String name) {
+        entries.add(new Entry(TrigramIndex.normalize(name), id));
+    }
+
+    public void remove(int id, String name) {
+        entries.remove(new Entry(TrigramIndex.normalize(name), id));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @param prefix a case-folded prefix
+     * @return the entries whose names start with it, in name order; a live view
+     */
+    public NavigableSet<Entry> withPrefix(String prefix) {
+        // No folded name contains U+FFFF, so this bounds every extension of the prefix
+        return entries.subSet(new Entry(prefix, Integer.MIN_VALUE), true,
+                new Entry(prefix + Character.MAX_VALUE, Integer.MIN_VALUE), false);
+    }
+
+    public record Entry(String name, int id) { }
+}
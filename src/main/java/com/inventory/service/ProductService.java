@@ -1,20 +1,35 @@
 package com.inventory.service;
 
+import com.inventory.model.BatchResult;
+import com.inventory.model.CategoryStockValue;
 import com.inventory.model.Product;
+import com.inventory.model.ProductOperation;
+import com.inventory.model.ProductPage;
+import com.inventory.model.ProductQuery;
+import com.inventory.validation.ValidationReport;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
     void addProduct(Product product);
     List<Product> getAllProducts();
-    void updateProduct(Product product);
+    ProductPage findProducts(ProductQuery query);
+    int streamAllProducts(Consumer<Product> consumer);
+    Product getProductById(int id);
+    Product updateProduct(Product product);
     void deleteProduct(int id);
     void adjustStock(int id, int amount);
     List<Product> findProductsByName(String name);
+    List<Product> suggestProducts(String prefix, int limit);
     List<Product> findProductsExpiringBefore(LocalDate date);
     void applyDiscount(int id);
-    void adjustStockForExpired();
+    int adjustStockForExpired();
+    BatchResult applyBatch(List<ProductOperation> operations, boolean atomic);
+    ValidationReport validateProducts(List<Product> products);
+    List<CategoryStockValue> getStockValueByCategory();
+    int countNearExpiry(int days);
 
     // New methods for categories and suppliers
     int addCategory(String name);
@@ -1,18 +1,27 @@
 package com.inventory.service;
 
+import com.inventory.config.ConfigManager;
 import com.inventory.dao.CategoryDAO;
 import com.inventory.dao.HistoryDAO;
 import com.inventory.dao.ProductDAO;
 import com.inventory.dao.SupplierDAO;
+import com.inventory.database.TransactionTemplate;
 import com.inventory.exception.ProductNotFoundException;
+import com.inventory.model.BatchResult;
+import com.inventory.model.CategoryStockValue;
 import com.inventory.model.Product;
+import com.inventory.model.ProductOperation;
+import com.inventory.model.ProductPage;
+import com.inventory.model.ProductQuery;
+import com.inventory.validation.ProductValidator;
+import com.inventory.validation.ValidationReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 public class ProductServiceImpl implements ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
@@ -20,12 +29,22 @@ public class ProductServiceImpl implements ProductService {
     private final CategoryDAO categoryDAO;
     private final SupplierDAO supplierDAO;
     private final HistoryDAO historyDAO;
+    private final TransactionTemplate transactions;
+    private final CatalogSnapshot catalog;
 
-    public ProductServiceImpl(ProductDAO productDAO, CategoryDAO categoryDAO, SupplierDAO supplierDAO, HistoryDAO historyDAO) {
+    private static final int MAX_SUGGESTIONS = 50;
+    // 10% off, in basis points
+    private static final long SERVICE_DISCOUNT_BASIS_POINTS = 1_000;
+    private static final int MAX_BATCH_OPERATIONS = ConfigManager.getInstance().getIntProperty("batch.max.operations", 10_000);
+
+    public ProductServiceImpl(ProductDAO productDAO, CategoryDAO categoryDAO, SupplierDAO supplierDAO, HistoryDAO historyDAO,
+                              TransactionTemplate transactions, CatalogSnapshot catalog) {
         this.productDAO = productDAO;
         this.categoryDAO = categoryDAO;
         this.supplierDAO = supplierDAO;
         this.historyDAO = historyDAO;
+        this.transactions = transactions;
+        this.catalog = catalog;
     }
 
     @Override
@@ -40,20 +59,53 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Product> getAllProducts() {
-        List<Product> products = productDAO.getAllProducts(false);
+        List<Product> products = catalog.current().products();
         logger.debug("Retrieved all products, count: {}", products.size());
         return products;
     }
 
     @Override
-    public void updateProduct(Product product) {
+    public ProductPage findProducts(ProductQuery query) {
+        if (query == null) {
+            logger.warn("Attempted to page products with null query.");
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        ProductPage page = productDAO.findPage(query);
+        logger.debug("Retrieved product page, count: {}", page.items().size());
+        return page;
+    }
+
+    @Override
+    public int streamAllProducts(Consumer<Product> consumer) {
+        if (consumer == null) {
+            logger.warn("Attempted to stream products to null consumer.");
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        return productDAO.streamAllProducts(consumer);
+    }
+
+    @Override
+    public Product getProductById(int id) {
+        if (id <= 0) {
+            logger.warn("Invalid product ID for lookup: {}", id);
+            throw new IllegalArgumentException("Invalid product ID: " + id);
+        }
+        return productDAO.findById(id).orElseThrow(() -> {
+            logger.warn("Product not found, ID: {}", id);
+            return new ProductNotFoundException("Product with ID " + id + " not found");
+        });
+    }
+
+    @Override
+    public Product updateProduct(Product product) {
         if (product == null) {
             logger.warn("Attempted to update null product.");
             throw new IllegalArgumentException("Product cannot be null");
         }
         try {
-            productDAO.updateProduct(product);
+            int version = productDAO.updateProduct(product);
             logger.info("Product updated via service: {}", product);
+            return product.withVersion(version);
         } catch (SQLException e) {
             if (e.getMessage().contains("No product found")) {
                 logger.warn("Product not found for update, ID: {}", product.id());
@@ -95,22 +147,33 @@ public class ProductServiceImpl implements ProductService {
             logger.warn("Invalid search name: {}", name);
             throw new IllegalArgumentException("Search name cannot be empty");
         }
-        List<Product> results = productDAO.getAllProducts(false).stream()
-                .filter(p -> p.name().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+        List<Product> results = catalog.findByName(name);
         logger.debug("Found {} products matching name: {}", results.size(), name);
         return results;
     }
 
+    @Override
+    public List<Product> suggestProducts(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            logger.warn("Invalid suggest prefix: {}", prefix);
+            throw new IllegalArgumentException("Prefix cannot be empty");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            logger.warn("Invalid suggest limit: {}", limit);
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        List<Product> results = catalog.suggest(prefix, limit);
+        logger.debug("Suggested {} products for prefix: {}", results.size(), prefix);
+        return results;
+    }
+
     @Override
     public List<Product> findProductsExpiringBefore(LocalDate date) {
         if (date == null) {
             logger.warn("Invalid date for expiry search: null");
             throw new IllegalArgumentException("Date cannot be null");
         }
-        List<Product> results = productDAO.getAllProducts(false).stream()
-                .filter(p -> p.expirationDate().isBefore(date))
-                .collect(Collectors.toList());
+        List<Product> results = catalog.current().expiringBefore(date);
         logger.debug("Found {} products expiring before: {}", results.size(), date);
         return results;
     }
@@ -121,43 +184,97 @@ public class ProductServiceImpl implements ProductService {
             logger.warn("Invalid product ID for discount: {}", id);
             throw new IllegalArgumentException("Invalid product ID: " + id);
         }
-        Product product = findProductById(id);
-        if (product == null) {
-            logger.warn("Product not found for discount, ID: {}", id);
-            throw new IllegalStateException("Product not found with ID: " + id);
-        }
-        if (!product.discounted()) {
-            Product updatedProduct = new Product(
-                    product.id(), product.name(), product.price() * 0.9, product.stock(),
-                    product.expirationDate(), true, product.categoryId(), product.supplierId()
-            );
-            try {
-                productDAO.updateProduct(updatedProduct);
-                logger.info("Discount applied via service, ID: {}", id);
-            } catch (SQLException e) {
-                if (e.getMessage().contains("No product found")) {
-                    logger.warn("Product not found during discount update, ID: {}", id);
-                    throw new ProductNotFoundException("Product with ID " + product.id() + " not found");
+        try {
+            // Read and write in one transaction so the price is discounted exactly once
+            transactions.executeWithoutResult(connection -> {
+                Product product = productDAO.findById(id).orElse(null);
+                if (product == null) {
+                    logger.warn("Product not found for discount, ID: {}", id);
+                    throw new IllegalStateException("Product not found with ID: " + id);
+                }
+                if (!product.discounted()) {
+                    Product updatedProduct = product.withDiscountedPrice(product.price().percentOff(SERVICE_DISCOUNT_BASIS_POINTS));
+                    productDAO.updateProduct(updatedProduct);
+                    logger.info("Discount applied via service, ID: {}", id);
+                } else {
+                    logger.debug("Product already discounted, ID: {}", id);
                 }
-                logger.error("Database error applying discount: {}", e.getMessage(), e);
-                throw new RuntimeException("Database error updating product", e);
+            });
+        } catch (SQLException e) {
+            if (e.getMessage().contains("No product found")) {
+                logger.warn("Product not found during discount update, ID: {}", id);
+                throw new ProductNotFoundException("Product with ID " + id + " not found");
             }
-        } else {
-            logger.debug("Product already discounted, ID: {}", id);
+            logger.error("Database error applying discount: {}", e.getMessage(), e);
+            throw new RuntimeException("Database error updating product", e);
         }
     }
 
+    /**
+     * Zeroes the stock of every expired product in one transaction: one commit for the whole
+     * sweep, and either all adjustments and their history rows are kept or none are.
+     */
     @Override
-    public void adjustStockForExpired() {
-        List<Product> products = productDAO.getAllProducts(false);
-        int adjustedCount = 0;
-        for (Product p : products) {
-            if (p.expirationDate().isBefore(LocalDate.now()) && p.stock() > 0) {
-                productDAO.adjustStock(p.id(), -p.stock());
-                adjustedCount++;
-            }
-        }
+    public int adjustStockForExpired() {
+        int adjustedCount = productDAO.clearExpiredStock(LocalDate.now());
         logger.info("Adjusted stock for {} expired products.", adjustedCount);
+        return adjustedCount;
+    }
+
+    @Override
+    public BatchResult applyBatch(List<ProductOperation> operations, boolean atomic) {
+        if (operations == null || operations.isEmpty()) {
+            logger.warn("Attempted to apply empty batch.");
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            logger.warn("Batch too large: {} operations", operations.size());
+            throw new IllegalArgumentException("Batch cannot exceed " + MAX_BATCH_OPERATIONS + " operations");
+        }
+        BatchResult result = productDAO.applyBatch(operations, atomic);
+        logger.info("Batch applied via service, succeeded: {}, failed: {}, committed: {}",
+                result.succeeded(), result.failed(), result.committed());
+        return result;
+    }
+
+    /**
+     * Dry run: reports every violation in every product without writing anything.
+     */
+    @Override
+    public ValidationReport validateProducts(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            logger.warn("Attempted to validate empty product list.");
+            throw new IllegalArgumentException("Products to validate cannot be empty");
+        }
+        if (products.size() > MAX_BATCH_OPERATIONS) {
+            logger.warn("Validation batch too large: {} products", products.size());
+            throw new IllegalArgumentException("Cannot validate more than " + MAX_BATCH_OPERATIONS + " products at once");
+        }
+        ValidationReport report = ProductValidator.validateAll(products);
+        logger.info("Validated {} products via service, invalid: {}", report.total(), report.invalid());
+        return report;
+    }
+
+    @Override
+    public List<CategoryStockValue> getStockValueByCategory() {
+        List<CategoryStockValue> values = catalog.columns().stockValueByCategory();
+        logger.debug("Computed stock value for {} categories.", values.size());
+        return values;
+    }
+
+    /**
+     * Counts in-stock products expiring within the next {@code days} days, excluding today.
+     */
+    @Override
+    public int countNearExpiry(int days) {
+        if (days < 0) {
+            logger.warn("Invalid near-expiry window: {}", days);
+            throw new IllegalArgumentException("Days cannot be negative");
+        }
+        LocalDate today = LocalDate.now();
+        int count = catalog.columns().countInStockExpiringBetween(today, today.plusDays(days));
+        logger.debug("Found {} in-stock products expiring within {} days.", count, days);
+        return count;
     }
 
     @Override
@@ -173,13 +290,4 @@ public class ProductServiceImpl implements ProductService {
         logger.info("Supplier added via service, ID: {}", id);
         return id;
     }
-
-    private Product findProductById(int id) {
-        Product product = productDAO.getAllProducts(false).stream()
-                .filter(p -> p.id() == id)
-                .findFirst()
-                .orElse(null);
-        logger.debug("Find product by ID: {}, found: {}", id, product != null);
-        return product;
-    }
 }
\ No newline at end of file
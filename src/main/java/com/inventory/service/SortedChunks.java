@@ -0,0 +1,204 @@
+package com.inventory.service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable sorted list stored as a sequence of small sorted chunks. {@link #with} returns a
+ * new list that shares every chunk it did not touch, so patching k elements of an n-element
+ * list copies O(n / CHUNK) chunk references plus O(k * CHUNK) elements instead of the whole
+ * list. Elements must be distinct under the order.
+ */
+final class SortedChunks<T> extends AbstractList<T> implements RandomAccess {
+    static final int CHUNK = 512;
+
+    private final Comparator<? super T> order;
+    // Every chunk is non-empty, sorted, and holds at most 2 * CHUNK elements
+    private final Object[][] chunks;
+    // starts[c] is the list index of chunk c's first element; starts[chunks.length] is the size
+    private final int[] starts;
+
+    private SortedChunks(Comparator<? super T> order, Object[][] chunks) {
+        this.order = order;
+        this.chunks = chunks;
+        this.starts = new int[chunks.length + 1];
+        for (int c = 0; c < chunks.length; c++) {
+            starts[c + 1] = starts[c] + chunks[c].length;
+        }
+    }
+
+    static <T> SortedChunks<T> of(Collection<T> elements, Comparator<? super T> order) {
+        Object[] sorted = elements.toArray();
+        @SuppressWarnings("unchecked")
+        Comparator<Object> cmp = (Comparator<Object>) order;
+        Arrays.sort(sorted, cmp);
+        List<Object[]> chunks = new ArrayList<>();
+        for (int from = 0; from < sorted.length; from += CHUNK) {
+            chunks.add(Arrays.copyOfRange(sorted, from, Math.min(from + CHUNK, sorted.length)));
+        }
+        return new SortedChunks<>(order, chunks.toArray(Object[][]::new));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        // Last chunk starting at or before the index
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return (T) chunks[low][index - starts[low]];
+    }
+
+    // Walks the chunks directly rather than through get(int)
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (Object[] chunk : chunks) {
+            for (Object element : chunk) {
+                action.accept((T) element);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return starts[chunks.length];
+    }
+
+    /**
+     * @param key compares an element to the sought key: negative if the element sorts before it
+     * @return the index of the first element not before the key, or size() if there is none
+     */
+    @SuppressWarnings("unchecked")
+    int lowerBound(ToIntFunction<? super T> key) {
+        int low = 0;
+        int high = chunks.length;
+        // First chunk whose last element is not before the key
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Object[] chunk = chunks[mid];
+            if (key.applyAsInt((T) chunk[chunk.length - 1]) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == chunks.length) {
+            return size();
+        }
+        Object[] chunk = chunks[low];
+        int from = 0;
+        int to = chunk.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (key.applyAsInt((T) chunk[mid]) < 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return starts[low] + from;
+    }
+
+    /**
+     * @return the element the key matches exactly, or null
+     */
+    T find(ToIntFunction<? super T> key) {
+        int index = lowerBound(key);
+        if (index == size()) {
+            return null;
+        }
+        T element = get(index);
+        return key.applyAsInt(element) == 0 ? element : null;
+    }
+
+    /**
+     * @param removed elements of this list to drop
+     * @param added elements to insert, none equal under the order to one that is kept
+     * @return a new list sharing every chunk neither argument touches
+     */
+    @SuppressWarnings("unchecked")
+    SortedChunks<T> with(Collection<T> removed, Collection<T> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        if (chunks.length == 0) {
+            return of(added, order);
+        }
+        Comparator<Object> cmp = (Comparator<Object>) order;
+        Map<Integer, List<Object>> removedByChunk = new HashMap<>();
+        Map<Integer, List<Object>> addedByChunk = new HashMap<>();
+        for (T element : removed) {
+            removedByChunk.computeIfAbsent(chunkFor(element, cmp), c -> new ArrayList<>()).add(element);
+        }
+        for (T element : added) {
+            addedByChunk.computeIfAbsent(chunkFor(element, cmp), c -> new ArrayList<>()).add(element);
+        }
+
+        List<Object[]> result = new ArrayList<>(chunks.length + 1);
+        for (int c = 0; c < chunks.length; c++) {
+            List<Object> drop = removedByChunk.get(c);
+            List<Object> insert = addedByChunk.get(c);
+            if (drop == null && insert == null) {
+                result.add(chunks[c]);
+                continue;
+            }
+            List<Object> merged = new ArrayList<>(Arrays.asList(chunks[c]));
+            if (drop != null) {
+                for (Object element : drop) {
+                    int at = Arrays.binarySearch(chunks[c], element, cmp);
+                    if (at >= 0) {
+                        merged.set(at, null);
+                    }
+                }
+                merged.removeIf(e -> e == null);
+            }
+            if (insert != null) {
+                merged.addAll(insert);
+                merged.sort(cmp);
+            }
+            // Keep chunks between 1 and 2 * CHUNK elements
+            int from = 0;
+            while (from < merged.size()) {
+                int to = merged.size() - from <= 2 * CHUNK ? merged.size() : from + CHUNK;
+                result.add(merged.subList(from, to).toArray());
+                from = to;
+            }
+        }
+        return new SortedChunks<>(order, result.toArray(Object[][]::new));
+    }
+
+    // The last chunk whose first element is not after the element, or the first chunk
+    private int chunkFor(Object element, Comparator<Object> cmp) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (cmp.compare(chunks[mid][0], element) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,98 @@
+package com.inventory.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from each three-character substring of a lower-cased product name to the
+ * IDs of the products containing it. Any name containing a query string of length three or
+ * more contains all of the query's trigrams, so intersecting their posting sets yields a
+ * small superset of the matches; callers verify each candidate with {@code contains}.
+ * Safe for concurrent readers while a single writer adds and removes names.
+ */
+public class TrigramIndex {
+    public static final int GRAM = 3;
+
+    private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+    public static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public void add(int id, String name) {
+        for (String gram : grams(normalize(name))) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public void remove(int id, String name) {
+        remove(id, name, null);
+    }
+
+    /**
+     * Drops the grams of a product's old name, keeping those its new name shares. Posting sets
+     * hold only IDs, so removing a shared gram would unindex the new name too.
+     * @param keptName the name the product now has, already indexed, or null if it is gone
+     */
+    public void remove(int id, String name, String keptName) {
+        Set<String> kept = keptName == null ? Set.of() : grams(normalize(keptName));
+        for (String gram : grams(normalize(name))) {
+            if (kept.contains(gram)) {
+                continue;
+            }
+            postings.computeIfPresent(gram, (g, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+    }
+
+    /**
+     * @param needle a lower-cased query
+     * @return IDs whose names may contain the needle, or null if it is too short to use the index
+     */
+    public List<Integer> candidates(String needle) {
+        if (needle.length() < GRAM) {
+            return null;
+        }
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (String gram : grams(needle)) {
+            Set<Integer> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        // Walk the rarest trigram's postings and probe the others
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Integer> result = new ArrayList<>();
+        outer:
+        for (Integer id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue outer;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -1,15 +1,34 @@
 package com.inventory.validation;
 
 import com.inventory.exception.ExpiredProductException;
+import com.inventory.model.Money;
 import com.inventory.model.Product;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.RecordComponent;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
 
 /**
- * ProductValidator class to validate products using reflection and custom annotations.
+ * ProductValidator class to validate products using custom annotations. The annotations are
+ * read once, when the class loads, and compiled into one rule per annotated record
+ * component: a MethodHandle that reads the component through its accessor and checks it
+ * against the annotation's bounds. The rules are also chained into the single constant
+ * {@link #FIRST_VIOLATION} handle, which the JIT can inline end to end, so a validation
+ * call does no reflection and boxes nothing.
  */
 public class ProductValidator {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Rule[] RULES = compile();
+    // (Product, LocalDate) -> index into RULES of the first violated rule, or -1
+    private static final MethodHandle FIRST_VIOLATION = chain(RULES);
 
     /**
      * Validates the product based on the @ValidateProduct annotation.
@@ -21,73 +40,225 @@ public class ProductValidator {
         if (product == null) {
             throw new IllegalArgumentException("Product cannot be null.");
         }
-
-        Field[] fields = Product.class.getDeclaredFields();
-        if (fields.length == 0) {
-            throw new IllegalStateException("No fields found in Product class for validation.");
+        LocalDate today = LocalDate.now();
+        int violated;
+        try {
+            violated = (int) FIRST_VIOLATION.invokeExact(product, today);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to validate product", e);
         }
+        if (violated >= 0) {
+            Rule rule = RULES[violated];
+            String violation = rule.violation(product, today);
+            throw rule.expiry() ? new ExpiredProductException(violation) : new IllegalArgumentException(violation);
+        }
+    }
 
-        for (Field field : fields) {
-            if (!field.isAnnotationPresent(ValidateProduct.class)) {
-                continue;
+    /**
+     * Checks every rule on every product, in parallel on the fork-join pool, without throwing.
+     * @return counts plus every violation of each invalid product, by position in the input
+     */
+    public static ValidationReport validateAll(Collection<Product> products) {
+        List<Product> rows = new ArrayList<>(products);
+        LocalDate today = LocalDate.now();
+        List<ValidationReport.RowErrors> errors = IntStream.range(0, rows.size())
+                .parallel()
+                .mapToObj(i -> rowErrors(i, rows.get(i), today))
+                .filter(Objects::nonNull)
+                .toList();
+        return new ValidationReport(rows.size(), rows.size() - errors.size(), errors.size(), errors);
+    }
+
+    private static ValidationReport.RowErrors rowErrors(int index, Product product, LocalDate today) {
+        if (product == null) {
+            return new ValidationReport.RowErrors(index, List.of("Product cannot be null."));
+        }
+        List<String> violations = null;
+        for (Rule rule : RULES) {
+            String violation = rule.violation(product, today);
+            if (violation != null) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                violations.add(violation);
             }
+        }
+        return violations == null ? null : new ValidationReport.RowErrors(index, violations);
+    }
 
-            field.setAccessible(true);
-            ValidateProduct annotation = field.getAnnotation(ValidateProduct.class);
-            String fieldName = field.getName();
+    /**
+     * One annotated component's check, a (Product, LocalDate) -> String handle returning the
+     * violation message or null. {@code expiry} marks violations reported as
+     * {@link ExpiredProductException} rather than IllegalArgumentException.
+     */
+    private record Rule(MethodHandle check, boolean expiry) {
+        String violation(Product product, LocalDate today) {
+            try {
+                return (String) check.invokeExact(product, today);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to validate product", e);
+            }
+        }
+    }
 
+    private static Rule[] compile() {
+        List<Rule> rules = new ArrayList<>();
+        for (RecordComponent component : Product.class.getRecordComponents()) {
+            ValidateProduct annotation = annotationOf(component);
+            if (annotation == null) {
+                continue;
+            }
             try {
-                Object value = field.get(product);
+                rules.addAll(compile(component, annotation, LOOKUP.unreflect(component.getAccessor())));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read product component: " + component.getName(), e);
+            }
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalStateException("No fields found in Product class for validation.");
+        }
+        return rules.toArray(Rule[]::new);
+    }
 
-                if (annotation.notNull() && value == null) {
-                    throw new IllegalArgumentException(fieldName + " cannot be null");
-                }
+    // The annotation targets fields, so it lands on the component's backing field
+    private static ValidateProduct annotationOf(RecordComponent component) {
+        try {
+            Field field = Product.class.getDeclaredField(component.getName());
+            return field.getAnnotation(ValidateProduct.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("No field for product component: " + component.getName(), e);
+        }
+    }
 
-                if (value == null) {
-                    continue;
-                }
+    private static List<Rule> compile(RecordComponent component, ValidateProduct annotation, MethodHandle getter) {
+        String fieldName = component.getName();
+        Class<?> type = component.getType();
+        double minValue = annotation.minValue();
+        boolean notNull = annotation.notNull();
+        String nullMessage = fieldName + " cannot be null";
+
+        if (type == int.class) {
+            String message = fieldName + " must be at least " + (int) minValue;
+            return List.of(rule("checkInt", getter, false, minValue, message));
+        }
+        if (type == Integer.class) {
+            String message = fieldName + " must be at least " + (int) minValue;
+            return List.of(rule("checkInteger", getter, false, minValue, notNull, nullMessage, message));
+        }
+        if (type == double.class) {
+            String message = fieldName + " must be at least " + minValue;
+            return List.of(rule("checkDouble", getter, false, minValue, message));
+        }
+        if (type == Money.class) {
+            String message = fieldName + " must be at least " + minValue;
+            return List.of(rule("checkMoney", getter, false, Math.round(minValue * 100), notNull, nullMessage, message));
+        }
+        if (type == String.class) {
+            String message = fieldName + " cannot be empty or whitespace only.";
+            return List.of(rule("checkString", getter, false, notNull, annotation.notEmpty(), nullMessage, message));
+        }
+        if (type == LocalDate.class) {
+            // Two rules, since a missing date is an IllegalArgumentException but a past one is not
+            return List.of(
+                    rule("checkDatePresent", getter, false, notNull, nullMessage),
+                    rule("checkDateNotPast", getter, true, annotation.allowPastDate(), fieldName));
+        }
+        if (type == boolean.class) {
+            // No validation needed beyond notNull
+            return List.of();
+        }
+        throw new IllegalStateException("Unsupported field type for validation: " + type);
+    }
 
-                if (field.getType().equals(String.class)) {
-                    validateString(fieldName, (String) value, annotation);
-                } else if (field.getType().equals(Double.TYPE)) {
-                    validateDouble(fieldName, (Double) value, annotation);
-                } else if (field.getType().equals(Integer.TYPE) || field.getType().equals(Integer.class)) {
-                    validateInteger(fieldName, (Integer) value, annotation);
-                } else if (field.getType().equals(LocalDate.class)) {
-                    validateLocalDate(fieldName, (LocalDate) value, annotation);
-                } else if (field.getType().equals(Boolean.TYPE)) {
-                    // No validation needed beyond notNull
-                } else {
-                    throw new IllegalStateException("Unsupported field type for validation: " + field.getType());
+    /**
+     * Binds a check method below to the annotation's settings and to the component getter.
+     * Each check takes the component value first, then today's date if it needs it, then the
+     * bound settings.
+     */
+    private static Rule rule(String checkName, MethodHandle getter, boolean expiry, Object... settings) {
+        Class<?> valueType = getter.type().returnType();
+        MethodHandle check = null;
+        for (var method : ProductValidator.class.getDeclaredMethods()) {
+            if (method.getName().equals(checkName)) {
+                try {
+                    check = LOOKUP.unreflect(method);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot bind validation check: " + checkName, e);
                 }
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Failed to validate product field: " + fieldName, e);
             }
         }
+        if (check == null || check.type().parameterType(0) != valueType) {
+            throw new IllegalStateException("No validation check " + checkName + " for " + valueType);
+        }
+        boolean usesToday = check.type().parameterCount() > 1 && check.type().parameterType(1) == LocalDate.class;
+        check = MethodHandles.insertArguments(check, usesToday ? 2 : 1, settings);
+        if (!usesToday) {
+            check = MethodHandles.dropArguments(check, 1, LocalDate.class);
+        }
+        // (Product, LocalDate) -> String
+        return new Rule(MethodHandles.filterArguments(check, 0, getter), expiry);
     }
 
-    private static void validateString(String fieldName, String value, ValidateProduct annotation) {
-        if (annotation.notEmpty() && value.trim().isEmpty()) {
-            throw new IllegalArgumentException(fieldName + " cannot be empty or whitespace only.");
+    /**
+     * Folds the rules into one handle that tries each in order and returns the index of the
+     * first that fails, or -1.
+     */
+    private static MethodHandle chain(Rule[] rules) {
+        MethodType signature = MethodType.methodType(int.class, Product.class, LocalDate.class);
+        MethodHandle next = MethodHandles.dropArguments(MethodHandles.constant(int.class, -1), 0, signature.parameterList());
+        try {
+            MethodHandle failed = LOOKUP.findStatic(Objects.class, "nonNull", MethodType.methodType(boolean.class, Object.class))
+                    .asType(MethodType.methodType(boolean.class, String.class));
+            for (int i = rules.length - 1; i >= 0; i--) {
+                MethodHandle test = MethodHandles.filterReturnValue(rules[i].check(), failed);
+                MethodHandle index = MethodHandles.dropArguments(MethodHandles.constant(int.class, i), 0, signature.parameterList());
+                next = MethodHandles.guardWithTest(test, index, next);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot chain validation rules", e);
         }
+        return next;
+    }
+
+    private static String checkInt(int value, double minValue, String message) {
+        return value < minValue ? message : null;
     }
 
-    private static void validateDouble(String fieldName, Double value, ValidateProduct annotation) {
-        if (value < annotation.minValue()) {
-            throw new IllegalArgumentException(fieldName + " must be at least " + annotation.minValue());
+    private static String checkInteger(Integer value, double minValue, boolean notNull, String nullMessage, String message) {
+        if (value == null) {
+            return notNull ? nullMessage : null;
         }
+        return value < minValue ? message : null;
+    }
+
+    private static String checkDouble(double value, double minValue, String message) {
+        return value < minValue ? message : null;
     }
 
-    private static void validateInteger(String fieldName, Object value, ValidateProduct annotation) {
-        Integer intValue = (Integer) value;
-        if (intValue != null && intValue < annotation.minValue()) {
-            throw new IllegalArgumentException(fieldName + " must be at least " + (int) annotation.minValue());
+    private static String checkMoney(Money value, long minCents, boolean notNull, String nullMessage, String message) {
+        if (value == null) {
+            return notNull ? nullMessage : null;
         }
+        return value.cents() < minCents ? message : null;
     }
 
-    private static void validateLocalDate(String fieldName, LocalDate value, ValidateProduct annotation) {
-        if (!annotation.allowPastDate() && value.isBefore(LocalDate.now())) {
-            throw new ExpiredProductException(fieldName + " cannot be in the past: " + value);
+    private static String checkString(String value, boolean notNull, boolean notEmpty, String nullMessage, String message) {
+        if (value == null) {
+            return notNull ? nullMessage : null;
         }
+        return notEmpty && value.trim().isEmpty() ? message : null;
+    }
+
+    private static String checkDatePresent(LocalDate value, boolean notNull, String nullMessage) {
+        return notNull && value == null ? nullMessage : null;
+    }
+
+    private static String checkDateNotPast(LocalDate value, LocalDate today, boolean allowPastDate, String fieldName) {
+        return value != null && !allowPastDate && value.isBefore(today)
+                ? fieldName + " cannot be in the past: " + value : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.inventory.validation;
+
+import java.util.List;
+
+/**
+ * Result of validating a batch of products. Only invalid rows are listed, each with every
+ * violation found, in input order; index is the row's position in the batch.
+ */
+public record ValidationReport(int total, int valid, int invalid, List<RowErrors> errors) {
+
+    public record RowErrors(int index, List<String> violations) { }
+}
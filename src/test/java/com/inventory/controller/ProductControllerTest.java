@@ -0,0 +1,51 @@
+package com.inventory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.discount.DiscountManager;
+import com.inventory.exception.DuplicateProductException;
+import com.inventory.importer.ProductImporter;
+import com.inventory.model.Product;
+import com.inventory.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTest {
+    private ProductService mockProductService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mockProductService = mock(ProductService.class);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        mvc = MockMvcBuilders.standaloneSetup(new ProductController(mockProductService,
+                mock(DiscountManager.class), mock(ProductImporter.class), objectMapper)).build();
+    }
+
+    @Test
+    void testUpdateOntoAnotherProductsKeyIsAConflict() throws Exception {
+        // Arrange
+        LocalDate expiry = LocalDate.now().plusDays(30);
+        String message = "Another product already has name 'Milk', price 1.00 and expiration date " + expiry;
+        when(mockProductService.updateProduct(any(Product.class))).thenThrow(new DuplicateProductException(message));
+
+        // Act & Assert
+        mvc.perform(put("/products/2")
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":2,\"name\":\"Milk\",\"price\":1.0,\"stock\":3,\"expirationDate\":\"" + expiry
+                                + "\",\"discounted\":false,\"categoryId\":1}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(message));
+    }
+}
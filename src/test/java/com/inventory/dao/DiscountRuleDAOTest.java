@@ -0,0 +1,53 @@
+package com.inventory.dao;
+
+import com.inventory.database.ConnectionPool;
+import com.inventory.database.Migrations;
+import com.inventory.database.SchemaMigrator;
+import com.inventory.model.DiscountRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs DiscountRuleDAO against a real in-memory SQLite database.
+ */
+class DiscountRuleDAOTest {
+    private Connection connection;
+    private DiscountRuleDAO discountRuleDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(Migrations.ALL).migrate(connection);
+        discountRuleDAO = new DiscountRuleDAO(ConnectionPool.shared(connection));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void testInsertFindAndDelete() {
+        // Arrange
+        DiscountRule percent = new DiscountRule(0, null, null, 1, 30, DiscountRule.Type.PERCENT, 2_000, 0);
+        DiscountRule flat = new DiscountRule(0, null, null, 1, 7, DiscountRule.Type.FLAT, 50, 3);
+
+        // Act
+        DiscountRule first = discountRuleDAO.insert(percent);
+        DiscountRule second = discountRuleDAO.insert(flat);
+
+        // Assert
+        assertEquals(List.of(percent.withId(first.id()), flat.withId(second.id())), discountRuleDAO.findAll());
+        assertTrue(discountRuleDAO.delete(first.id()));
+        assertFalse(discountRuleDAO.delete(first.id()));
+        assertEquals(List.of(second), discountRuleDAO.findAll());
+    }
+}
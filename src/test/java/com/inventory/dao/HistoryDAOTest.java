@@ -1,5 +1,6 @@
 package com.inventory.dao;
 
+import com.inventory.database.ConnectionPool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -16,7 +17,7 @@ class HistoryDAOTest {
     @BeforeEach
     void setUp() throws SQLException {
         mockConnection = mock(Connection.class);
-        historyDAO = new HistoryDAO(mockConnection);
+        historyDAO = new HistoryDAO(ConnectionPool.shared(mockConnection));
     }
 
     @Test
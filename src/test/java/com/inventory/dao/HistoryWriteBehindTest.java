@@ -0,0 +1,188 @@
+package com.inventory.dao;
+
+import com.inventory.database.ConnectionPool;
+import com.inventory.database.Migrations;
+import com.inventory.database.SchemaMigrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryWriteBehindTest {
+    private volatile boolean sinkDown = true;
+    private HistoryWriteBehind retrying;
+
+    @Test
+    void testEntriesAreBatchedAndDrainedOnClose() throws SQLException {
+        // Arrange
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            new SchemaMigrator(Migrations.ALL).migrate(connection);
+            HistoryDAO historyDAO = new HistoryDAO(ConnectionPool.shared(connection), 1000, 50, 50, 1000);
+
+            // Act
+            for (int i = 0; i < 500; i++) {
+                historyDAO.logProductHistory(i + 1, "UPDATE", "stock: " + i, "stock: " + (i + 1));
+            }
+            historyDAO.close();
+
+            // Assert
+            HistoryDAO.WriteBehindStats stats = historyDAO.writeBehindStats();
+            assertEquals(500, stats.written());
+            assertTrue(stats.batches() <= 500 / 10, "Expected batched inserts, got " + stats.batches() + " batches");
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MIN(timestamp) FROM ProductHistory")) {
+                assertTrue(rs.next());
+                assertEquals(500, rs.getInt(1));
+                assertNotNull(rs.getString(2));
+            }
+        }
+    }
+
+    @Test
+    void testFullQueueRejectsAfterTimeout() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        List<HistoryDAO.Entry> written = Collections.synchronizedList(new ArrayList<>());
+        HistoryWriteBehind writeBehind = new HistoryWriteBehind(1, 1, 10, batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+        });
+
+        // Act: the first entry blocks the writer, the second fills the queue
+        assertTrue(writeBehind.offer(entry(1), 100));
+        Thread.sleep(50);
+        assertTrue(writeBehind.offer(entry(2), 100));
+        boolean third = writeBehind.offer(entry(3), 20);
+        release.countDown();
+        writeBehind.close();
+
+        // Assert
+        assertFalse(third);
+        assertEquals(2, written.size());
+        assertEquals(1, writeBehind.stats().writtenInline());
+        assertFalse(writeBehind.offer(entry(4), 0), "Closed queue must not accept entries");
+    }
+
+    @Test
+    void testFailedBatchIsRetried() {
+        // Arrange
+        int[] calls = {0};
+        List<HistoryDAO.Entry> written = new ArrayList<>();
+        HistoryWriteBehind writeBehind = new HistoryWriteBehind(10, 10, 5, batch -> {
+            if (calls[0]++ == 0) {
+                throw new RuntimeException("database is locked");
+            }
+            written.addAll(batch);
+        });
+
+        // Act
+        writeBehind.offer(entry(1), 0);
+        writeBehind.close();
+
+        // Assert
+        assertEquals(1, written.size());
+        assertEquals(1, writeBehind.stats().failedWrites());
+    }
+
+    @Test
+    void testBatchIsNeverDroppedAfterRepeatedFailures() {
+        // Arrange
+        int[] calls = {0};
+        List<HistoryDAO.Entry> written = new ArrayList<>();
+        HistoryWriteBehind writeBehind = new HistoryWriteBehind(10, 10, 1, batch -> {
+            if (calls[0]++ < 5) {
+                throw new RuntimeException("database is locked");
+            }
+            written.addAll(batch);
+        });
+
+        // Act
+        writeBehind.offer(entry(1), 0);
+        writeBehind.close();
+
+        // Assert
+        assertEquals(1, written.size());
+        assertEquals(5, writeBehind.stats().failedWrites());
+    }
+
+    @Test
+    void testCloseIsBoundedWhenTheSinkKeepsFailing() {
+        // Arrange
+        HistoryWriteBehind writeBehind = new HistoryWriteBehind(10, 10, 1, 200, batch -> {
+            if (sinkDown) {
+                throw new RuntimeException("disk I/O error");
+            }
+        });
+        writeBehind.offer(entry(1), 0);
+
+        // Act
+        long start = System.nanoTime();
+        writeBehind.close();
+
+        // Assert
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "close() must not wait forever");
+        assertEquals(0, writeBehind.stats().written());
+        retrying = writeBehind;
+    }
+
+    @Test
+    void testEntriesOfferedDuringCloseAreWrittenOrHandedBack() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            // Arrange
+            Set<HistoryDAO.Entry> written = ConcurrentHashMap.newKeySet();
+            HistoryWriteBehind writeBehind = new HistoryWriteBehind(1000, 10, 1, written::addAll);
+            Set<HistoryDAO.Entry> accepted = ConcurrentHashMap.newKeySet();
+            CountDownLatch started = new CountDownLatch(1);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    HistoryDAO.Entry entry = entry(i);
+                    if (writeBehind.offer(entry, 0)) {
+                        accepted.add(entry);
+                    }
+                    started.countDown();
+                }
+            });
+
+            // Act
+            producer.start();
+            started.await();
+            writeBehind.close();
+            producer.join();
+
+            // Assert: nothing accepted is lost, even if it was queued after the final drain
+            accepted.removeAll(written);
+            assertEquals(Set.of(), accepted, "Accepted entries that were never written");
+        }
+    }
+
+    // Lets a writer left retrying by a failing-sink test finish instead of spinning for the rest of the run
+    @AfterEach
+    void stopRetrying() throws InterruptedException {
+        sinkDown = false;
+        if (retrying != null) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (retrying.stats().written() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, retrying.stats().written(), "The batch must still be written once the sink recovers");
+        }
+    }
+
+    private static HistoryDAO.Entry entry(int productId) {
+        return new HistoryDAO.Entry(productId, "UPDATE", null, null, LocalDateTime.now());
+    }
+}
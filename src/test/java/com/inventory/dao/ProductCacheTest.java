@@ -0,0 +1,70 @@
+package com.inventory.dao;
+
+import com.inventory.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenFull() {
+        // Arrange
+        ProductCache cache = new ProductCache(2, 1000, nanos::get);
+        cache.put(product(1), cache.stamp());
+        cache.put(product(2), cache.stamp());
+        cache.get(1);
+
+        // Act
+        cache.put(product(3), cache.stamp());
+
+        // Assert
+        assertNotNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        // Arrange
+        ProductCache cache = new ProductCache(10, 1000, nanos::get);
+        cache.put(product(1), cache.stamp());
+
+        // Act & Assert
+        nanos.set(999_000_000L);
+        assertNotNull(cache.get(1));
+        nanos.set(1_000_000_000L);
+        assertNull(cache.get(1));
+        ProductCache.CacheStats stats = cache.stats();
+        assertEquals(1, stats.expirations());
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0, stats.size());
+    }
+
+    @Test
+    void testPutIsDroppedIfInvalidatedSinceStamp() {
+        // Arrange
+        ProductCache cache = new ProductCache(10, 1000, nanos::get);
+        long stamp = cache.stamp();
+
+        // Act: a writer commits between the reader's stamp and its put
+        cache.invalidateAll(List.of(1));
+        cache.put(product(1), stamp);
+
+        // Assert
+        assertNull(cache.get(1));
+        cache.put(product(1), cache.stamp());
+        assertNotNull(cache.get(1));
+    }
+
+    private static Product product(int id) {
+        return new Product(id, "Item" + id, 1.0, 10, LocalDate.now().plusDays(30), false, 1, null, 1);
+    }
+}
@@ -0,0 +1,362 @@
+package com.inventory.dao;
+
+import com.inventory.database.ConnectionPool;
+import com.inventory.database.Migrations;
+import com.inventory.database.SchemaMigrator;
+import com.inventory.database.TransactionTemplate;
+import com.inventory.exception.DuplicateProductException;
+import com.inventory.exception.InsufficientStockException;
+import com.inventory.exception.ProductVersionConflictException;
+import com.inventory.model.BatchItemResult;
+import com.inventory.model.BatchResult;
+import com.inventory.model.Money;
+import com.inventory.model.Product;
+import com.inventory.model.ProductOperation;
+import com.inventory.model.ProductPage;
+import com.inventory.model.ProductQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs ProductDAO against a real in-memory SQLite database, for the SQL that mocks cannot verify.
+ */
+class ProductDAOSqliteTest {
+    private Connection connection;
+    private ConnectionPool pool;
+    private ProductDAO productDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(Migrations.ALL).migrate(connection);
+        pool = ConnectionPool.shared(connection);
+        productDAO = new ProductDAO(pool, new HistoryDAO(pool));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void testPagesCoverEveryRowOnce() {
+        for (int i = 0; i < 25; i++) {
+            productDAO.insertOrUpdateProduct(product("Item" + (i % 7), 1.0 + i, i % 3 + 1));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPage page = productDAO.findPage(ProductQuery.of(cursor, 10, null, null, null, null, "-name"));
+            page.items().forEach(p -> seen.add(p.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        assertEquals(25, seen.stream().distinct().count());
+    }
+
+    @Test
+    void testFiltersAndSortPushedDown() {
+        productDAO.insertOrUpdateProduct(product("Cheap", 1.0, 1));
+        productDAO.insertOrUpdateProduct(product("Mid", 5.0, 1));
+        productDAO.insertOrUpdateProduct(product("Dear", 9.0, 1));
+        productDAO.insertOrUpdateProduct(product("Other", 2.0, 2));
+
+        ProductPage page = productDAO.findPage(ProductQuery.of(null, 10, 1, null, null, 6.0, "-price"));
+
+        assertEquals(List.of("Mid", "Cheap"), page.items().stream().map(Product::name).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testSeekUsesIndex() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN SELECT id FROM Product WHERE category_id = 1 AND (name, id) > ('M', 3) ORDER BY name, id LIMIT 11")) {
+            assertTrue(rs.next());
+            assertTrue(rs.getString("detail").contains("idx_product_category_name"), rs.getString("detail"));
+        }
+    }
+
+    @Test
+    void testStreamVisitsEveryRowInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            productDAO.insertOrUpdateProduct(product("Item" + i, 1.0, 1));
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        int count = productDAO.streamAllProducts(p -> ids.add(p.id()));
+
+        assertEquals(5, count);
+        assertEquals(List.of(1, 2, 3, 4, 5), ids);
+    }
+
+    @Test
+    void testAdjustStockIsAtomicAndLogsHistory() throws SQLException {
+        productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+
+        productDAO.adjustStock(1, -4);
+        assertThrows(InsufficientStockException.class, () -> productDAO.adjustStock(1, -7));
+
+        assertEquals(6, productDAO.findById(1).orElseThrow().stock());
+        assertEquals(List.of("stock: 10 -> stock: 6"), history("STOCK_ADJUST"));
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    void testUpdateBumpsVersionAndRejectsStaleWrites() throws SQLException {
+        productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+        Product read = productDAO.findById(1).orElseThrow();
+        assertEquals(1, read.version());
+
+        Product first = new Product(1, "Milk", 1.5, 10, read.expirationDate(), false, 1, null, read.version());
+        assertEquals(2, productDAO.updateProduct(first));
+
+        // A second writer still holding version 1 must not overwrite the first
+        Product stale = new Product(1, "Milk", 2.0, 10, read.expirationDate(), false, 1, null, read.version());
+        ProductVersionConflictException conflict = assertThrows(ProductVersionConflictException.class,
+                () -> productDAO.updateProduct(stale));
+        assertEquals(2, conflict.getCurrentVersion());
+        assertEquals(Money.ofCents(150), productDAO.findById(1).orElseThrow().price());
+
+        // Stock adjustments are writes too
+        productDAO.adjustStock(1, 5);
+        assertEquals(3, productDAO.findById(1).orElseThrow().version());
+    }
+
+    @Test
+    void testUpdateOntoAnotherProductsKeyIsADuplicate() throws SQLException {
+        Product milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+        Product bread = productDAO.insertOrUpdateProduct(product("Bread", 1.0, 1));
+        Product clash = new Product(bread.id(), "Milk", 1.0, 3, milk.expirationDate(), false, 1, null, bread.version());
+
+        DuplicateProductException duplicate = assertThrows(DuplicateProductException.class,
+                () -> productDAO.updateProduct(clash));
+        assertEquals("Another product already has name 'Milk', price 1.00 and expiration date "
+                + milk.expirationDate(), duplicate.getMessage());
+
+        BatchResult result = productDAO.applyBatch(List.of(
+                new ProductOperation(ProductOperation.Type.UPDATE, null, null, clash)), true);
+        assertFalse(result.committed());
+        assertEquals(duplicate.getMessage(), result.items().get(0).error());
+        assertEquals("Bread", productDAO.findById(bread.id()).orElseThrow().name());
+    }
+
+    @Test
+    void testUpsertMergesStockOnNaturalKey() throws SQLException {
+        Product first = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+        Product second = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 2));
+        productDAO.insertOrUpdateProduct(product("Milk", 1.5, 1));
+
+        assertEquals(first.id(), second.id());
+        assertEquals(20, second.stock());
+        assertEquals(2, second.version());
+        assertEquals(2, productDAO.findById(first.id()).orElseThrow().categoryId());
+        assertEquals(2, productDAO.getAllProducts(false).size());
+        assertEquals(List.of("null -> price: 1.0, stock: 10", "null -> price: 1.5, stock: 10"), history("ADD"));
+        assertEquals(List.of("stock: 10 -> stock: 20"), history("UPDATE"));
+    }
+
+    @Test
+    void testUnitOfWorkRollsBackProductAndHistoryTogether() throws SQLException {
+        productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+        productDAO.insertOrUpdateProduct(product("Bread", 2.0, 1));
+        TransactionTemplate transactions = pool.transactions();
+
+        // The second adjustment fails, so the first must be undone with it
+        assertThrows(InsufficientStockException.class, () -> transactions.executeWithoutResult(c -> {
+            productDAO.adjustStock(1, -5);
+            productDAO.adjustStock(2, -50);
+        }));
+
+        assertEquals(10, productDAO.findById(1).orElseThrow().stock());
+        assertEquals(List.of(), history("STOCK_ADJUST"));
+    }
+
+    @Test
+    void testBatchAppliesMixedOperationsInOneTransaction() throws SQLException {
+        Product milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+        Product bread = productDAO.insertOrUpdateProduct(product("Bread", 2.0, 1));
+        Product eggs = productDAO.insertOrUpdateProduct(product("Eggs", 3.0, 1));
+        LocalDate expiry = milk.expirationDate();
+
+        BatchResult result = productDAO.applyBatch(List.of(
+                new ProductOperation(ProductOperation.Type.ADD, null, null, product("Butter", 4.0, 1)),
+                new ProductOperation(ProductOperation.Type.ADD, null, null, product("Milk", 1.0, 1)),
+                new ProductOperation(ProductOperation.Type.UPDATE, null, null,
+                        new Product(bread.id(), "Bread", 2.5, 8, expiry, false, 1, null, bread.version())),
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), -15, null),
+                new ProductOperation(ProductOperation.Type.DELETE, eggs.id(), null, null)
+        ), true);
+
+        assertTrue(result.committed());
+        assertEquals(5, result.succeeded());
+        assertTrue(result.items().get(0).id() > eggs.id());
+        assertEquals(5, productDAO.findById(milk.id()).orElseThrow().stock());
+        assertEquals(Money.ofCents(250), productDAO.findById(bread.id()).orElseThrow().price());
+        assertTrue(productDAO.findById(eggs.id()).isEmpty());
+        assertEquals(List.of("stock: 20 -> stock: 5"), history("STOCK_ADJUST"));
+        assertEquals(List.of("stock: 10 -> stock: 20", "price: 2.0, stock: 10 -> price: 2.5, stock: 8"), history("UPDATE"));
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    void testBatchAppliesOperationsOnOneProductInInputOrder() throws SQLException {
+        Product milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+
+        BatchResult result = productDAO.applyBatch(List.of(
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), 5, null),
+                new ProductOperation(ProductOperation.Type.UPDATE, null, null,
+                        new Product(milk.id(), "Milk", 1.0, 10, milk.expirationDate(), false, 1, null, milk.version() + 1)),
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), -3, null)
+        ), true);
+
+        assertTrue(result.committed());
+        assertEquals(3, result.succeeded());
+        assertEquals(7, productDAO.findById(milk.id()).orElseThrow().stock());
+        assertEquals(List.of("stock: 10 -> stock: 15", "stock: 10 -> stock: 7"), history("STOCK_ADJUST"));
+    }
+
+    @Test
+    void testBatchUpdateWithoutVersionIsRejected() {
+        Product milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+
+        BatchResult result = productDAO.applyBatch(List.of(
+                new ProductOperation(ProductOperation.Type.UPDATE, null, null,
+                        new Product(milk.id(), "Milk", 1.0, 3, milk.expirationDate(), false, 1, null))
+        ), false);
+
+        assertEquals("A version is required for update", result.items().get(0).error());
+        assertEquals(10, productDAO.findById(milk.id()).orElseThrow().stock());
+    }
+
+    @Test
+    void testAllOrNothingBatchWritesNothingWhenOneOperationFails() {
+        Product milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+
+        BatchResult result = productDAO.applyBatch(List.of(
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), 5, null),
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), -50, null),
+                new ProductOperation(ProductOperation.Type.DELETE, 999, null, null)
+        ), true);
+
+        assertFalse(result.committed());
+        assertEquals(BatchItemResult.Status.SKIPPED, result.items().get(0).status());
+        assertEquals("Stock cannot go below 0. Current: 15, Attempted change: -50", result.items().get(1).error());
+        assertEquals("Product with ID 999 not found", result.items().get(2).error());
+        assertEquals(10, productDAO.findById(milk.id()).orElseThrow().stock());
+    }
+
+    @Test
+    void testBestEffortBatchAppliesValidOperations() {
+        Product milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1));
+
+        BatchResult result = productDAO.applyBatch(List.of(
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), -4, null),
+                new ProductOperation(ProductOperation.Type.ADJUST, milk.id(), -7, null),
+                new ProductOperation(ProductOperation.Type.ADD, null, null, product(" ", 1.0, 1))
+        ), false);
+
+        assertTrue(result.committed());
+        assertEquals(1, result.succeeded());
+        assertEquals(2, result.failed());
+        assertEquals(6, productDAO.findById(milk.id()).orElseThrow().stock());
+    }
+
+    @Test
+    void testClearExpiredStockZeroesOnlyExpiredRows() throws SQLException {
+        int milk = productDAO.insertOrUpdateProduct(product("Milk", 1.0, 1)).id();
+        int bread = productDAO.insertOrUpdateProduct(product("Bread", 2.0, 1)).id();
+        int eggs = productDAO.insertOrUpdateProduct(product("Eggs", 3.0, 1)).id();
+        productDAO.adjustStock(bread, -10);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE Product SET expiration_date = '2020-01-01' WHERE id IN (" + milk + ", " + bread + ")");
+        }
+
+        assertEquals(1, productDAO.clearExpiredStock(LocalDate.now()));
+
+        assertEquals(0, productDAO.findById(milk).orElseThrow().stock());
+        assertEquals(10, productDAO.findById(eggs).orElseThrow().stock());
+        assertEquals(List.of("stock: 10 -> stock: 0", "stock: 10 -> stock: 0"), history("STOCK_ADJUST"));
+        assertEquals(0, productDAO.clearExpiredStock(LocalDate.now()));
+    }
+
+    @Test
+    void testDiscountCandidatesAndBatchedPriceWrite() throws SQLException {
+        int milk = productDAO.insertOrUpdateProduct(product("Milk", 10.0, 1)).id();
+        int bread = productDAO.insertOrUpdateProduct(product("Bread", 4.0, 1)).id();
+        productDAO.insertOrUpdateProduct(new Product(0, "Bread", 3.2, 5, LocalDate.now().plusDays(30), true, 1, null));
+        productDAO.insertOrUpdateProduct(new Product(0, "Eggs", 3.0, 5, LocalDate.now().plusDays(90), false, 1, null));
+        LocalDate today = LocalDate.now();
+
+        List<Product> candidates = productDAO.findDiscountCandidates(today, today.plusDays(30), 0, 10);
+        assertEquals(List.of(milk, bread), candidates.stream().map(Product::id).toList());
+        assertEquals(List.of(bread), productDAO.findDiscountCandidates(today, today.plusDays(30), milk, 10).stream().map(Product::id).toList());
+
+        // Bread at 3.2 already exists with the same expiration date, so that write is skipped
+        List<Product> priced = candidates.stream()
+                .map(p -> p.withDiscountedPrice(p.price().percentOff(2_000)))
+                .toList();
+        assertEquals(1, productDAO.saveDiscountedPrices(candidates, priced));
+
+        Product discounted = productDAO.findById(milk).orElseThrow();
+        assertEquals(Money.ofCents(800), discounted.price());
+        assertTrue(discounted.discounted());
+        assertEquals(candidates.get(0).version() + 1, discounted.version());
+        assertFalse(productDAO.findById(bread).orElseThrow().discounted());
+        assertEquals(List.of("price: 10.0, stock: 10 -> price: 8.0, stock: 10"), history("UPDATE"));
+    }
+
+    @Test
+    void testCachedReadsAreEvictedOnCommitOnly() throws SQLException {
+        ProductDAO cachedDAO = new ProductDAO(pool, new HistoryDAO(pool), new ProductCache(100, 60_000));
+        int id = cachedDAO.insertOrUpdateProduct(product("Milk", 1.0, 1)).id();
+
+        assertEquals(10, cachedDAO.findById(id).orElseThrow().stock());
+        assertEquals(10, cachedDAO.findById(id).orElseThrow().stock());
+        assertEquals(1, cachedDAO.cacheStats().hits());
+
+        cachedDAO.adjustStock(id, -3);
+        assertEquals(7, cachedDAO.findById(id).orElseThrow().stock());
+
+        // A rolled-back write leaves the cached row in place
+        TransactionTemplate transactions = pool.transactions();
+        assertThrows(IllegalStateException.class, () -> transactions.executeWithoutResult(connection -> {
+            cachedDAO.adjustStock(id, -7);
+            throw new IllegalStateException("abort");
+        }));
+        assertEquals(7, cachedDAO.findById(id).orElseThrow().stock());
+        assertEquals(2, cachedDAO.cacheStats().hits());
+
+        cachedDAO.deleteProduct(id);
+        assertTrue(cachedDAO.findById(id).isEmpty());
+    }
+
+    private List<String> history(String action) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT old_value, new_value FROM ProductHistory WHERE action = ? ORDER BY id")) {
+            stmt.setString(1, action);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(rs.getString("old_value") + " -> " + rs.getString("new_value"));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Product product(String name, double price, int categoryId) {
+        return new Product(0, name, price, 10, LocalDate.now().plusDays(30), false, categoryId, null);
+    }
+}
@@ -1,5 +1,7 @@
 package com.inventory.dao;
 
+import com.inventory.database.ConnectionPool;
+import com.inventory.exception.ProductNotFoundException;
 import com.inventory.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,7 @@ import org.mockito.Mockito;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,37 +24,30 @@ class ProductDAOTest {
     void setUp() throws SQLException {
         mockConnection = mock(Connection.class);
         mockHistoryDAO = mock(HistoryDAO.class);
-        productDAO = new ProductDAO(mockConnection, mockHistoryDAO);
+        productDAO = new ProductDAO(ConnectionPool.shared(mockConnection), mockHistoryDAO);
     }
 
+    private static final String UPSERT_QUERY = "INSERT INTO Product (name, price, stock, expiration_date, discounted, category_id, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (name, price, expiration_date) DO UPDATE SET stock = stock + excluded.stock, discounted = excluded.discounted, "
+            + "category_id = excluded.category_id, supplier_id = excluded.supplier_id, version = version + 1 "
+            + "RETURNING id, stock, version";
+
     @Test
     void testInsertNewProduct() throws SQLException {
         Product product = new Product(0, "Milk", 5.0, 100, LocalDate.of(2025, 6, 30), false, 1, 1);
 
-        PreparedStatement mockInsertStmt = mock(PreparedStatement.class);
-        when(mockConnection.prepareStatement(
-                "INSERT INTO Product (name, price, stock, expiration_date, discounted, category_id, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS
-        )).thenReturn(mockInsertStmt);
-        when(mockInsertStmt.executeUpdate()).thenReturn(1);
-        ResultSet mockGeneratedKeys = mock(ResultSet.class);
-        when(mockInsertStmt.getGeneratedKeys()).thenReturn(mockGeneratedKeys);
-        when(mockGeneratedKeys.next()).thenReturn(true);
-        when(mockGeneratedKeys.getInt(1)).thenReturn(1);
-
-        PreparedStatement mockCheckStmt = mock(PreparedStatement.class);
-        ResultSet mockCheckResult = mock(ResultSet.class);
-        when(mockConnection.prepareStatement("SELECT id, stock FROM Product WHERE name = ? AND price = ? AND expiration_date = ?"))
-                .thenReturn(mockCheckStmt);
-        when(mockCheckStmt.executeQuery()).thenReturn(mockCheckResult);
-        when(mockCheckResult.next()).thenReturn(false);
-
-        productDAO.insertOrUpdateProduct(product);
-
-        verify(mockConnection).prepareStatement(
-                "INSERT INTO Product (name, price, stock, expiration_date, discounted, category_id, supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS
-        );
+        PreparedStatement mockUpsertStmt = mock(PreparedStatement.class);
+        ResultSet mockReturned = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(UPSERT_QUERY)).thenReturn(mockUpsertStmt);
+        when(mockUpsertStmt.executeQuery()).thenReturn(mockReturned);
+        when(mockReturned.next()).thenReturn(true);
+        when(mockReturned.getInt("id")).thenReturn(1);
+        when(mockReturned.getInt("stock")).thenReturn(100);
+        when(mockReturned.getInt("version")).thenReturn(1);
+
+        Product stored = productDAO.insertOrUpdateProduct(product);
+
+        assertEquals(1, stored.id());
         verify(mockHistoryDAO).logProductHistory(1, "ADD", null, "price: 5.0, stock: 100");
     }
 
@@ -59,23 +55,18 @@ class ProductDAOTest {
     void testUpdateExistingProduct() throws SQLException {
         Product product = new Product(0, "Milk", 5.0, 50, LocalDate.of(2025, 6, 30), false, 1, 1);
 
-        PreparedStatement mockCheckStmt = mock(PreparedStatement.class);
-        ResultSet mockCheckResult = mock(ResultSet.class);
-        when(mockConnection.prepareStatement("SELECT id, stock FROM Product WHERE name = ? AND price = ? AND expiration_date = ?"))
-                .thenReturn(mockCheckStmt);
-        when(mockCheckStmt.executeQuery()).thenReturn(mockCheckResult);
-        when(mockCheckResult.next()).thenReturn(true);
-        when(mockCheckResult.getInt("id")).thenReturn(1);
-        when(mockCheckResult.getInt("stock")).thenReturn(100);
-
-        PreparedStatement mockUpdateStmt = mock(PreparedStatement.class);
-        when(mockConnection.prepareStatement("UPDATE Product SET stock = stock + ?, discounted = ?, category_id = ?, supplier_id = ? WHERE id = ?"))
-                .thenReturn(mockUpdateStmt);
-        when(mockUpdateStmt.executeUpdate()).thenReturn(1);
+        PreparedStatement mockUpsertStmt = mock(PreparedStatement.class);
+        ResultSet mockReturned = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(UPSERT_QUERY)).thenReturn(mockUpsertStmt);
+        when(mockUpsertStmt.executeQuery()).thenReturn(mockReturned);
+        when(mockReturned.next()).thenReturn(true);
+        when(mockReturned.getInt("id")).thenReturn(1);
+        when(mockReturned.getInt("stock")).thenReturn(150);
+        when(mockReturned.getInt("version")).thenReturn(2);
 
-        productDAO.insertOrUpdateProduct(product);
+        Product stored = productDAO.insertOrUpdateProduct(product);
 
-        verify(mockUpdateStmt).executeUpdate();
+        assertEquals(150, stored.stock());
         verify(mockHistoryDAO).logProductHistory(1, "UPDATE", "stock: 100", "stock: 150");
     }
 
@@ -85,20 +76,20 @@ class ProductDAOTest {
 
         PreparedStatement mockSelectStmt = mock(PreparedStatement.class);
         ResultSet mockResultSet = mock(ResultSet.class);
-        when(mockConnection.prepareStatement("SELECT price, stock FROM Product WHERE id = ?")).thenReturn(mockSelectStmt);
+        when(mockConnection.prepareStatement("SELECT price, stock, version FROM Product WHERE id = ?")).thenReturn(mockSelectStmt);
         when(mockSelectStmt.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(true);
         when(mockResultSet.getDouble("price")).thenReturn(5.0);
         when(mockResultSet.getInt("stock")).thenReturn(100);
 
         PreparedStatement mockUpdateStmt = mock(PreparedStatement.class);
-        when(mockConnection.prepareStatement("UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ? WHERE id = ?"))
+        when(mockConnection.prepareStatement("UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ?, version = version + 1 WHERE id = ? AND version = ?"))
                 .thenReturn(mockUpdateStmt);
         when(mockUpdateStmt.executeUpdate()).thenReturn(1);
 
         productDAO.updateProduct(product);
 
-        verify(mockConnection).prepareStatement("UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ? WHERE id = ?");
+        verify(mockConnection).prepareStatement("UPDATE Product SET name = ?, price = ?, stock = ?, expiration_date = ?, discounted = ?, category_id = ?, supplier_id = ?, version = version + 1 WHERE id = ? AND version = ?");
         verify(mockHistoryDAO).logProductHistory(1, "UPDATE", "price: 5.0, stock: 100", "price: 3.0, stock: 100");
     }
 
@@ -108,7 +99,7 @@ class ProductDAOTest {
         ResultSet mockResultSet = mock(ResultSet.class);
         when(mockResultSet.next()).thenReturn(false);
         PreparedStatement mockStmt = mock(PreparedStatement.class);
-        when(mockConnection.prepareStatement("SELECT price, stock FROM Product WHERE id = ?")).thenReturn(mockStmt);
+        when(mockConnection.prepareStatement("SELECT price, stock, version FROM Product WHERE id = ?")).thenReturn(mockStmt);
         when(mockStmt.executeQuery()).thenReturn(mockResultSet);
 
         Exception exception = assertThrows(SQLException.class, () -> productDAO.updateProduct(product));
@@ -139,25 +130,32 @@ class ProductDAOTest {
 
     @Test
     void testAdjustStockSuccess() throws SQLException {
-        PreparedStatement mockSelectStmt = mock(PreparedStatement.class);
+        PreparedStatement mockUpdateStmt = mock(PreparedStatement.class);
         ResultSet mockResultSet = mock(ResultSet.class);
-        when(mockConnection.prepareStatement("SELECT stock FROM Product WHERE id = ?")).thenReturn(mockSelectStmt);
-        when(mockSelectStmt.executeQuery()).thenReturn(mockResultSet);
+        when(mockConnection.prepareStatement("UPDATE Product SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0 RETURNING stock"))
+                .thenReturn(mockUpdateStmt);
+        when(mockUpdateStmt.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getInt("stock")).thenReturn(100);
-
-        PreparedStatement mockStockStmt = mock(PreparedStatement.class);
-        when(mockConnection.prepareStatement("UPDATE Product SET stock = ? WHERE id = ?")).thenReturn(mockStockStmt);
-        when(mockStockStmt.executeUpdate()).thenReturn(1);
+        when(mockResultSet.getInt("stock")).thenReturn(150);
 
         productDAO.adjustStock(1, 50);
 
-        verify(mockStockStmt).executeUpdate();
+        verify(mockUpdateStmt).setInt(1, 50);
+        verify(mockUpdateStmt).setInt(2, 1);
+        verify(mockUpdateStmt).setInt(3, 50);
+        verify(mockConnection, never()).prepareStatement("SELECT stock FROM Product WHERE id = ?");
         verify(mockHistoryDAO).logProductHistory(1, "STOCK_ADJUST", "stock: 100", "stock: 150");
     }
 
     @Test
     void testAdjustStockBelowZeroThrows() throws SQLException {
+        PreparedStatement mockUpdateStmt = mock(PreparedStatement.class);
+        ResultSet mockEmpty = mock(ResultSet.class);
+        when(mockConnection.prepareStatement("UPDATE Product SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0 RETURNING stock"))
+                .thenReturn(mockUpdateStmt);
+        when(mockUpdateStmt.executeQuery()).thenReturn(mockEmpty);
+        when(mockEmpty.next()).thenReturn(false);
+
         PreparedStatement mockSelectStmt = mock(PreparedStatement.class);
         ResultSet mockResultSet = mock(ResultSet.class);
         when(mockConnection.prepareStatement("SELECT stock FROM Product WHERE id = ?")).thenReturn(mockSelectStmt);
@@ -167,6 +165,22 @@ class ProductDAOTest {
 
         Exception exception = assertThrows(IllegalStateException.class, () -> productDAO.adjustStock(1, -150));
         assertEquals("Stock cannot go below 0. Current: 100, Attempted change: -150", exception.getMessage());
+        verifyNoInteractions(mockHistoryDAO);
+    }
+
+    @Test
+    void testAdjustStockNotFoundThrows() throws SQLException {
+        PreparedStatement mockUpdateStmt = mock(PreparedStatement.class);
+        ResultSet mockEmpty = mock(ResultSet.class);
+        when(mockConnection.prepareStatement("UPDATE Product SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0 RETURNING stock"))
+                .thenReturn(mockUpdateStmt);
+        when(mockUpdateStmt.executeQuery()).thenReturn(mockEmpty);
+        PreparedStatement mockSelectStmt = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement("SELECT stock FROM Product WHERE id = ?")).thenReturn(mockSelectStmt);
+        when(mockSelectStmt.executeQuery()).thenReturn(mockEmpty);
+
+        Exception exception = assertThrows(ProductNotFoundException.class, () -> productDAO.adjustStock(999, 10));
+        assertEquals("Product with ID 999 not found", exception.getMessage());
     }
 
     @Test
@@ -183,7 +197,7 @@ class ProductDAOTest {
         when(mockResult.getObject("supplier_id")).thenReturn(1);
 
         PreparedStatement mockStmt = mock(PreparedStatement.class);
-        when(mockConnection.prepareStatement("SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id FROM Product"))
+        when(mockConnection.prepareStatement("SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id, version FROM Product"))
                 .thenReturn(mockStmt);
         when(mockStmt.executeQuery()).thenReturn(mockResult);
 
@@ -192,7 +206,58 @@ class ProductDAOTest {
         assertEquals(1, products.size());
         Product product = products.get(0);
         assertEquals("Milk", product.name());
-        assertEquals(5.0, product.price());
+        assertEquals(5.0, product.price().toDouble());
         assertEquals(100, product.stock());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindByIdSuccess() throws SQLException {
+        ResultSet mockResult = mock(ResultSet.class);
+        when(mockResult.next()).thenReturn(true);
+        when(mockResult.getInt("id")).thenReturn(7);
+        when(mockResult.getString("name")).thenReturn("Milk");
+        when(mockResult.getDouble("price")).thenReturn(5.0);
+        when(mockResult.getInt("stock")).thenReturn(100);
+        when(mockResult.getString("expiration_date")).thenReturn("2025-06-30");
+        when(mockResult.getBoolean("discounted")).thenReturn(false);
+
+        PreparedStatement mockStmt = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement("SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id, version FROM Product WHERE id = ?"))
+                .thenReturn(mockStmt);
+        when(mockStmt.executeQuery()).thenReturn(mockResult);
+
+        Optional<Product> product = productDAO.findById(7);
+
+        assertTrue(product.isPresent());
+        assertEquals(7, product.get().id());
+        assertNull(product.get().categoryId());
+        verify(mockStmt).setInt(1, 7);
+    }
+
+    @Test
+    void testFindByIdNotFound() throws SQLException {
+        ResultSet mockResult = mock(ResultSet.class);
+        when(mockResult.next()).thenReturn(false);
+        PreparedStatement mockStmt = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement("SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id, version FROM Product WHERE id = ?"))
+                .thenReturn(mockStmt);
+        when(mockStmt.executeQuery()).thenReturn(mockResult);
+
+        assertTrue(productDAO.findById(999).isEmpty());
+    }
+
+    @Test
+    void testFindByIdsUsesSingleInQuery() throws SQLException {
+        ResultSet mockResult = mock(ResultSet.class);
+        when(mockResult.next()).thenReturn(false);
+        PreparedStatement mockStmt = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement("SELECT id, name, price, stock, expiration_date, discounted, category_id, supplier_id, version FROM Product WHERE id IN (?, ?) ORDER BY id"))
+                .thenReturn(mockStmt);
+        when(mockStmt.executeQuery()).thenReturn(mockResult);
+
+        productDAO.findByIds(List.of(3, 1, 3));
+
+        verify(mockStmt).setInt(1, 1);
+        verify(mockStmt).setInt(2, 3);
+    }
+}
@@ -0,0 +1,113 @@
+package com.inventory.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolTest {
+    private Connection mockConnection;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        mockConnection = mock(Connection.class);
+        pool = ConnectionPool.shared(mockConnection);
+    }
+
+    @Test
+    void testWriteLeaseIsReentrant() throws SQLException {
+        try (ConnectionPool.Lease outer = pool.write();
+             ConnectionPool.Lease inner = pool.write()) {
+            assertSame(outer.connection(), inner.connection());
+        }
+        assertEquals(2, pool.stats().writeAcquisitions());
+    }
+
+    @Test
+    void testWriteLeaseIsExclusiveAcrossThreads() throws Exception {
+        // Arrange
+        CountDownLatch requested = new CountDownLatch(1);
+        CompletableFuture<Boolean> other;
+        ConnectionPool.Lease first = pool.write();
+        try {
+            // Act
+            other = CompletableFuture.supplyAsync(() -> {
+                requested.countDown();
+                try (ConnectionPool.Lease lease = pool.write()) {
+                    return true;
+                } catch (SQLException e) {
+                    return false;
+                }
+            });
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+            // Assert: the second writer waits while the first holds the lease
+            assertThrows(TimeoutException.class, () -> other.get(200, TimeUnit.MILLISECONDS));
+        } finally {
+            first.close();
+        }
+        // ...and gets it once the first releases it
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        assertEquals(2, pool.stats().writeAcquisitions());
+    }
+
+    @Test
+    void testSharedReadWaitsForAnotherThreadsTransaction() throws Exception {
+        // Arrange
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            ConnectionPool shared = ConnectionPool.shared(connection);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE Item (id INTEGER PRIMARY KEY)");
+            }
+            CountDownLatch requested = new CountDownLatch(1);
+            CompletableFuture<Integer> reader;
+            ConnectionPool.Lease writing = shared.write();
+            try {
+                connection.setAutoCommit(false);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("INSERT INTO Item (id) VALUES (1)");
+                }
+
+                // Act
+                reader = CompletableFuture.supplyAsync(() -> {
+                    requested.countDown();
+                    try (ConnectionPool.Lease lease = shared.read();
+                         Statement stmt = lease.connection().createStatement();
+                         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Item")) {
+                        rs.next();
+                        return rs.getInt(1);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+                // Assert: the read does not run inside the uncommitted transaction
+                assertThrows(TimeoutException.class, () -> reader.get(200, TimeUnit.MILLISECONDS));
+                connection.commit();
+                connection.setAutoCommit(true);
+            } finally {
+                writing.close();
+            }
+            assertEquals(1, reader.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testCloseClosesConnections() throws SQLException {
+        pool.close();
+        verify(mockConnection).close();
+    }
+}
@@ -0,0 +1,111 @@
+package com.inventory.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void testMigrateAppliesAllAndIsIdempotent() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(Migrations.ALL);
+
+        assertEquals(Migrations.ALL.size(), migrator.migrate(connection));
+        assertEquals(0, migrator.migrate(connection));
+        assertTrue(indexExists("idx_product_name_price_expiration"));
+        assertTrue(indexExists("idx_product_expiration"));
+        assertTrue(indexExists("idx_history_product_timestamp"));
+    }
+
+    @Test
+    void testNaturalKeyLookupUsesIndex() throws SQLException {
+        new SchemaMigrator(Migrations.ALL).migrate(connection);
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN SELECT id, stock FROM Product WHERE name = 'Milk' AND price = 5.0 AND expiration_date = '2030-01-01'")) {
+            assertTrue(rs.next());
+            assertTrue(rs.getString("detail").contains("USING INDEX"), rs.getString("detail"));
+        }
+    }
+
+    @Test
+    void testNaturalKeyMigrationMergesDuplicates() throws SQLException {
+        new SchemaMigrator(Migrations.ALL.subList(0, 4)).migrate(connection);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Product (id, name, price, stock, expiration_date) VALUES "
+                    + "(1, 'Milk', 5.0, 10, '2030-01-01'), (2, 'Milk', 5.0, 7, '2030-01-01'), (3, 'Bread', 2.0, 4, '2030-01-01')");
+            stmt.executeUpdate("INSERT INTO ProductHistory (product_id, action) VALUES (2, 'ADD')");
+        }
+
+        new SchemaMigrator(Migrations.ALL).migrate(connection);
+
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, stock FROM Product ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt("id"));
+                assertEquals(17, rs.getInt("stock"));
+                assertTrue(rs.next());
+                assertEquals(3, rs.getInt("id"));
+                assertFalse(rs.next());
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT product_id FROM ProductHistory")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt("product_id"));
+            }
+            assertThrows(SQLException.class, () -> stmt.executeUpdate(
+                    "INSERT INTO Product (name, price, stock, expiration_date) VALUES ('Milk', 5.0, 1, '2030-01-01')"));
+        }
+    }
+
+    @Test
+    void testChecksumMismatchFails() throws SQLException {
+        new SchemaMigrator(List.of(new Migration(1, "Create table", "CREATE TABLE t (id INTEGER)"))).migrate(connection);
+        SchemaMigrator edited = new SchemaMigrator(List.of(new Migration(1, "Create table", "CREATE TABLE t (id INTEGER, name TEXT)")));
+
+        Exception exception = assertThrows(SQLException.class, () -> edited.migrate(connection));
+        assertEquals("Checksum mismatch for applied migration V1 (Create table)", exception.getMessage());
+    }
+
+    @Test
+    void testFailedMigrationIsRolledBack() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(List.of(
+                new Migration(1, "Broken", "CREATE TABLE t (id INTEGER)", "CREATE TABLE t (id INTEGER)")));
+
+        assertThrows(SQLException.class, () -> migrator.migrate(connection));
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE name = 't'")) {
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testOutOfOrderMigrationsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(List.of(
+                new Migration(2, "Second", "SELECT 1"), new Migration(1, "First", "SELECT 1"))));
+    }
+
+    private boolean indexExists(String name) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.inventory.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionTemplateTest {
+    private Connection mockConnection;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        mockConnection = mock(Connection.class);
+        transactions = ConnectionPool.shared(mockConnection).transactions();
+    }
+
+    @Test
+    void testNestedCallsJoinOuterTransaction() throws SQLException {
+        // Act
+        int result = transactions.execute(outer -> transactions.execute(inner -> {
+            assertSame(outer, inner);
+            assertTrue(transactions.inTransaction());
+            return 42;
+        }));
+
+        // Assert
+        assertEquals(42, result);
+        assertFalse(transactions.inTransaction());
+        verify(mockConnection, times(1)).setAutoCommit(false);
+        verify(mockConnection, times(1)).commit();
+        verify(mockConnection).setAutoCommit(true);
+    }
+
+    @Test
+    void testFailureRollsBackAndDiscardsAfterCommitActions() throws SQLException {
+        // Arrange
+        List<String> ran = new ArrayList<>();
+
+        // Act
+        SQLException exception = assertThrows(SQLException.class, () -> transactions.executeWithoutResult(connection -> {
+            transactions.afterCommit(() -> ran.add("after"));
+            throw new SQLException("constraint failed");
+        }));
+
+        // Assert
+        assertEquals("constraint failed", exception.getMessage());
+        assertTrue(ran.isEmpty());
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+        verify(mockConnection).setAutoCommit(true);
+    }
+
+    @Test
+    void testAfterCommitActionsRunAfterCommit() throws SQLException {
+        // Arrange
+        List<String> ran = new ArrayList<>();
+
+        // Act
+        transactions.executeWithoutResult(connection -> {
+            transactions.afterCommit(() -> ran.add("first"));
+            transactions.afterCommit(() -> ran.add("second"));
+            assertTrue(ran.isEmpty());
+        });
+        transactions.afterCommit(() -> ran.add("immediate"));
+
+        // Assert
+        assertEquals(List.of("first", "second", "immediate"), ran);
+    }
+}
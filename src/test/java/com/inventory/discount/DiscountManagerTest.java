@@ -1,6 +1,10 @@
 package com.inventory.discount;
 
 import com.inventory.dao.ProductDAO;
+import com.inventory.model.DiscountPreview;
+import com.inventory.model.DiscountRule;
+import com.inventory.model.DiscountRunResult;
+import com.inventory.model.Money;
 import com.inventory.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,8 +13,11 @@ import org.mockito.Mockito;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,68 +33,170 @@ class DiscountManagerTest {
     }
 
     @Test
-    void testApplyDynamicDiscountsNearExpiry() throws SQLException {
+    void testApplyDynamicDiscountsNearExpiry() {
         // Arrange
-        Product nearExpiry = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(10), false, 1, 1);
-        Product farExpiry = new Product(2, "Bread", 5.0, 50, LocalDate.now().plusDays(60), false, 1, 1);
-        when(mockProductDAO.getAllProducts(false)).thenReturn(Arrays.asList(nearExpiry, farExpiry));
+        Product milk = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(10), false, 1, 1, 3);
+        Product bread = new Product(2, "Bread", 5.0, 50, LocalDate.now().plusDays(20), false, 1, 1, 1);
+        when(mockProductDAO.findDiscountCandidates(LocalDate.now(), LocalDate.now().plusDays(30), 0, 500))
+                .thenReturn(Arrays.asList(milk, bread));
+        when(mockProductDAO.findDiscountCandidates(LocalDate.now(), LocalDate.now().plusDays(30), 2, 500))
+                .thenReturn(Collections.emptyList());
+        when(mockProductDAO.saveDiscountedPrices(anyList(), anyList())).thenReturn(2);
 
         // Act
-        int discountedCount = discountManager.applyDynamicDiscounts();
+        DiscountRunResult result = discountManager.runDynamicDiscounts();
 
         // Assert
-        assertEquals(1, discountedCount); // Only nearExpiry should be discounted
-        verify(mockProductDAO, times(1)).updateProduct(argThat(product ->
-                product.id() == 1 && product.price() == 8.0 && product.discounted() // 10.0 * (1 - 0.2) = 8.0
-        ));
-        verify(mockProductDAO, never()).updateProduct(argThat(product -> product.id() == 2));
+        assertEquals(2, result.candidates());
+        assertEquals(2, result.discounted());
+        assertEquals(0, result.skipped());
+        assertEquals(1, result.batches());
+        verify(mockProductDAO).saveDiscountedPrices(eq(Arrays.asList(milk, bread)), argThat(priced ->
+                priced.get(0).price().cents() == 800 && priced.get(0).discounted() && priced.get(0).version() == 3 // 10.0 * (1 - 0.2) = 8.0
+                        && priced.get(1).price().cents() == 400));
+        verify(mockProductDAO, never()).getAllProducts(anyBoolean());
     }
 
     @Test
-    void testApplyDynamicDiscountAlreadyDiscounted() throws SQLException {
+    void testApplyDynamicDiscountsSavesOnlyRuleMatches() {
         // Arrange
-        Product discounted = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(10), true, 1, 1);
-        when(mockProductDAO.getAllProducts(false)).thenReturn(Collections.singletonList(discounted));
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.of(
+                new DiscountRule(1, 1, null, 1, 15, DiscountRule.Type.FLAT, 150, 0)), null, 0);
+        discountManager = new DiscountManager(mockProductDAO, engine);
+        Product milk = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(10), false, 1, 1, 3);
+        Product bread = new Product(2, "Bread", 5.0, 50, LocalDate.now().plusDays(12), false, 2, 1, 1);
+        when(mockProductDAO.findDiscountCandidates(LocalDate.now(), LocalDate.now().plusDays(15), 0, 500))
+                .thenReturn(Arrays.asList(milk, bread));
+        when(mockProductDAO.findDiscountCandidates(LocalDate.now(), LocalDate.now().plusDays(15), 2, 500))
+                .thenReturn(Collections.emptyList());
+        when(mockProductDAO.saveDiscountedPrices(anyList(), anyList())).thenReturn(1);
+
+        // Act
+        DiscountRunResult result = discountManager.runDynamicDiscounts();
+
+        // Assert
+        assertEquals(2, result.candidates());
+        assertEquals(1, result.discounted());
+        assertEquals(1, result.skipped());
+        verify(mockProductDAO).saveDiscountedPrices(eq(List.of(milk)), argThat(priced ->
+                priced.size() == 1 && priced.get(0).price().cents() == 850));
+    }
+
+    @Test
+    void testFlatDiscountLargerThanThePriceSavesTheMinimumPrice() {
+        // Arrange
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.of(
+                new DiscountRule(1, null, null, 1, 15, DiscountRule.Type.FLAT, 500, 0)), null, 0);
+        discountManager = new DiscountManager(mockProductDAO, engine);
+        Product gum = new Product(1, "Gum", 2.0, 10, LocalDate.now().plusDays(5), false, 1, 1, 1);
+        when(mockProductDAO.findDiscountCandidates(LocalDate.now(), LocalDate.now().plusDays(15), 0, 500))
+                .thenReturn(List.of(gum));
+        when(mockProductDAO.findDiscountCandidates(LocalDate.now(), LocalDate.now().plusDays(15), 1, 500))
+                .thenReturn(Collections.emptyList());
+        when(mockProductDAO.saveDiscountedPrices(anyList(), anyList())).thenReturn(1);
+
+        // Act
+        DiscountRunResult result = discountManager.runDynamicDiscounts();
+        DiscountPreview preview = discountManager.previewDynamicDiscounts(List.of(gum), null);
+
+        // Assert
+        assertEquals(1, result.discounted());
+        verify(mockProductDAO).saveDiscountedPrices(eq(List.of(gum)), argThat(priced ->
+                priced.get(0).price().equals(Money.ofCents(1)) && priced.get(0).discounted()));
+        assertEquals(Money.ofCents(10), preview.valueAfter());
+    }
+
+    @Test
+    void testPreviewTotalsByCategoryWithoutWriting() {
+        // Arrange
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.of(
+                new DiscountRule(1, 1, null, 1, 15, DiscountRule.Type.PERCENT, 5_000, 0),
+                new DiscountRule(2, null, null, 1, 30, DiscountRule.Type.FLAT, 100, 0)), null, 0);
+        discountManager = new DiscountManager(mockProductDAO, engine);
+        LocalDate today = LocalDate.now();
+        List<Product> catalog = List.of(
+                new Product(1, "Milk", 10.0, 4, today.plusDays(10), false, 1, 1),    // 50%: 20.00 off
+                new Product(2, "Bread", 5.0, 10, today.plusDays(20), false, 1, 1),   // flat: 10.00 off
+                new Product(3, "Eggs", 3.0, 2, today.plusDays(5), false, null, 1),   // flat: 2.00 off
+                new Product(4, "Jam", 4.0, 9, today.plusDays(90), false, 1, 1),      // no rule reaches it
+                new Product(5, "Tea", 6.0, 9, today.plusDays(5), true, 1, 1));       // already discounted
+        List<DiscountPreview.Line> lines = new ArrayList<>();
+
+        // Act
+        DiscountPreview totals = discountManager.previewDynamicDiscounts(catalog, null);
+        DiscountPreview streamed = discountManager.previewDynamicDiscounts(catalog, lines::add);
+
+        // Assert
+        assertEquals(5, totals.scanned());
+        assertEquals(3, totals.discounted());
+        assertEquals(16, totals.units());
+        assertEquals(Money.ofCents(9600), totals.valueBefore());
+        assertEquals(Money.ofCents(6400), totals.valueAfter());
+        assertEquals(Money.ofCents(3200), totals.markdown());
+        assertEquals(List.of(
+                new DiscountPreview.CategoryMarkdown(1, 2, 14, Money.ofCents(9000), Money.ofCents(6000), Money.ofCents(3000)),
+                new DiscountPreview.CategoryMarkdown(null, 1, 2, Money.ofCents(600), Money.ofCents(400), Money.ofCents(200))),
+                totals.byCategory());
+        assertEquals(totals.byCategory(), streamed.byCategory());
+        assertEquals(List.of(1, 2, 3), lines.stream().map(DiscountPreview.Line::id).toList());
+        assertEquals(Money.ofCents(500), lines.get(0).discountedPrice());
+        verifyNoInteractions(mockProductDAO);
+    }
+
+    @Test
+    void testApplyDynamicDiscountsNoCandidates() {
+        // Arrange
+        when(mockProductDAO.findDiscountCandidates(any(), any(), anyInt(), anyInt())).thenReturn(Collections.emptyList());
 
         // Act
         int discountedCount = discountManager.applyDynamicDiscounts();
 
         // Assert
-        assertEquals(0, discountedCount); // No change if already discounted
-        verify(mockProductDAO, never()).updateProduct(any());
+        assertEquals(0, discountedCount);
+        verify(mockProductDAO, never()).saveDiscountedPrices(anyList(), anyList());
     }
 
     @Test
     void testApplyDynamicDiscountByIdNearExpiry() throws SQLException {
         // Arrange
         Product nearExpiry = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(10), false, 1, 1);
-        Product updated = new Product(1, "Milk", 8.0, 100, LocalDate.now().plusDays(10), true, 1, 1);
-        when(mockProductDAO.getAllProducts(false)).thenReturn(Collections.singletonList(nearExpiry))
-                .thenReturn(Collections.singletonList(updated)); // Simulate update
+        when(mockProductDAO.findById(1)).thenReturn(Optional.of(nearExpiry));
 
         // Act
         Product result = discountManager.applyDynamicDiscount(1);
 
         // Assert
-        assertEquals(8.0, result.price(), 0.01); // 20% off
+        assertEquals(Money.ofCents(800), result.price()); // 20% off
         assertTrue(result.discounted());
         verify(mockProductDAO).updateProduct(argThat(product ->
-                product.id() == 1 && product.price() == 8.0 && product.discounted()
+                product.id() == 1 && product.price().cents() == 800 && product.discounted()
         ));
+        verify(mockProductDAO, times(1)).findById(1);
+        verify(mockProductDAO, never()).getAllProducts(anyBoolean());
     }
 
     @Test
     void testApplyDynamicDiscountByIdNoDiscount() throws SQLException {
         // Arrange
         Product farExpiry = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(60), false, 1, 1);
-        when(mockProductDAO.getAllProducts(false)).thenReturn(Collections.singletonList(farExpiry));
+        when(mockProductDAO.findById(1)).thenReturn(Optional.of(farExpiry));
 
         // Act
         Product result = discountManager.applyDynamicDiscount(1);
 
         // Assert
-        assertEquals(10.0, result.price(), 0.01); // No change
+        assertEquals(Money.ofCents(1000), result.price()); // No change
         assertFalse(result.discounted());
         verify(mockProductDAO, never()).updateProduct(any());
     }
+
+    @Test
+    void testApplyDynamicDiscountByIdNotFound() {
+        // Arrange
+        when(mockProductDAO.findById(99)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> discountManager.applyDynamicDiscount(99));
+        assertEquals("No product found with ID: 99", exception.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.inventory.discount;
+
+import com.inventory.config.ConfigManager;
+import com.inventory.model.DiscountRule;
+import com.inventory.model.DiscountRule.Type;
+import com.inventory.model.Money;
+import com.inventory.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DiscountRuleEngineTest {
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 1);
+    private static final DiscountRule FALLBACK = new DiscountRule(0, null, null, 1, 30, Type.PERCENT, 2_000, Integer.MIN_VALUE);
+
+    @Test
+    void testMostSpecificRuleWins() {
+        // Arrange
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.of(
+                new DiscountRule(1, 1, null, 1, 10, Type.PERCENT, 5_000, 0),
+                new DiscountRule(2, 1, 7, 1, 5, Type.FLAT, 100, 0),
+                new DiscountRule(3, null, 7, 1, 60, Type.PERCENT, 1_000, 0)), FALLBACK, 0);
+
+        // Act & Assert
+        assertEquals(900, price(engine, product(1, 7, 3)));     // category and supplier: 1.00 off
+        assertEquals(500, price(engine, product(1, 7, 8)));     // category only: 50%
+        assertEquals(900, price(engine, product(2, 7, 8)));     // supplier only: 10%
+        assertEquals(900, price(engine, product(1, 7, 45)));    // only the supplier rule reaches 45 days
+        assertEquals(800, price(engine, product(2, null, 8)));  // fallback: 20%
+        assertNull(engine.strategyFor(product(2, null, 45), TODAY));
+        assertNull(engine.strategyFor(product(1, 7, 0), TODAY));
+        assertEquals(60, engine.current().maxDays());
+    }
+
+    @Test
+    void testPriorityResolvesOverlappingBands() {
+        // Arrange
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.of(
+                new DiscountRule(1, 1, null, 1, 20, Type.PERCENT, 1_000, 0),
+                new DiscountRule(2, 1, null, 5, 10, Type.PERCENT, 3_000, 5)), null, 0);
+
+        // Act & Assert
+        assertEquals(900, price(engine, product(1, null, 3)));
+        assertEquals(700, price(engine, product(1, null, 7)));
+        assertEquals(900, price(engine, product(1, null, 15)));
+    }
+
+    @Test
+    void testIdenticalRulesShareOneStrategy() {
+        // Arrange
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.of(
+                new DiscountRule(1, 1, null, 1, 10, Type.PERCENT, 2_000, 0),
+                new DiscountRule(2, 2, null, 1, 10, Type.PERCENT, 2_000, 0)), null, 0);
+
+        // Act & Assert
+        assertSame(engine.strategyFor(product(1, null, 5), TODAY), engine.strategyFor(product(2, null, 5), TODAY));
+    }
+
+    @Test
+    void testReloadSwapsRulesWithoutDisturbingHeldVersion() {
+        // Arrange
+        List<DiscountRule> table = new ArrayList<>();
+        DiscountRuleEngine engine = new DiscountRuleEngine(() -> List.copyOf(table), null, 0);
+        DiscountRuleEngine.Rules before = engine.current();
+        table.add(new DiscountRule(1, null, null, 1, 10, Type.FLAT, 250, 0));
+
+        // Act
+        engine.reload();
+
+        // Assert
+        assertNull(before.strategyFor(product(1, 1, 5), TODAY));
+        assertEquals(750, price(engine, product(1, 1, 5)));
+        assertEquals(List.of(table.get(0)), engine.current().rules());
+    }
+
+    @Test
+    void testInvalidRulesRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DiscountRule(0, null, null, 0, 10, Type.PERCENT, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DiscountRule(0, null, null, 5, 4, Type.PERCENT, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DiscountRule(0, null, null, 1, 10, Type.PERCENT, 10_001, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DiscountRule(0, 0, null, 1, 10, Type.FLAT, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DiscountRule(0, null, null, 1, 10, null, 100, 0));
+    }
+
+    @Test
+    void testConfiguredThresholdBeyondMaxDaysIsLowered() {
+        // Arrange
+        ConfigManager config = mock(ConfigManager.class);
+        when(config.getIntProperty("discount.expiration.threshold.days", 30)).thenReturn(1_000);
+        when(config.getDoubleProperty("discount.near.expiry.percent", 20)).thenReturn(20.0);
+
+        // Act
+        DiscountRule fallback = DiscountRuleEngine.configuredFallback(config);
+
+        // Assert
+        assertEquals(DiscountRule.MAX_DAYS, fallback.maxDays());
+        assertEquals(2_000, fallback.amount());
+    }
+
+    private static long price(DiscountRuleEngine engine, Product product) {
+        DiscountStrategy strategy = engine.strategyFor(product, TODAY);
+        assertNotNull(strategy);
+        return strategy.applyDiscount(product.price()).cents();
+    }
+
+    private static Product product(Integer categoryId, Integer supplierId, int daysToExpiry) {
+        return new Product(1, "Milk", Money.ofCents(1000), 10, TODAY.plusDays(daysToExpiry), false, categoryId, supplierId);
+    }
+}
@@ -2,6 +2,7 @@ package com.inventory.discount;
 
 import com.inventory.dao.ProductDAO;
 import com.inventory.exception.ProductNotFoundException;
+import com.inventory.model.Money;
 import com.inventory.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,7 +35,7 @@ class DiscountServiceTest {
         Product discounted = discountService.applyDiscount(product, strategy);
 
         // Assert
-        assertEquals(8.0, discounted.price(), 0.01); // 10.0 * (1 - 0.2) = 8.0
+        assertEquals(Money.ofCents(800), discounted.price()); // 10.0 * (1 - 0.2) = 8.0
         assertTrue(discounted.discounted());
         assertEquals(product.id(), discounted.id());
         assertEquals(product.name(), discounted.name());
@@ -50,7 +51,7 @@ class DiscountServiceTest {
         Product discounted = discountService.applyDiscount(product, strategy);
 
         // Assert
-        assertEquals(0.0, discounted.price(), 0.01); // Capped at 0
+        assertEquals(Money.ofCents(1), discounted.price()); // Raised to the validator minimum
         assertTrue(discounted.discounted());
     }
 
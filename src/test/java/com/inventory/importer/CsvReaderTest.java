@@ -0,0 +1,35 @@
+package com.inventory.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void testReadsQuotedFieldsAcrossLines() throws IOException {
+        // Arrange
+        String csv = "name,note\r\n\"Milk, whole\",\"says \"\"hi\"\"\"\r\nBread,\"two\nlines\"\nEggs,\n";
+
+        // Act & Assert
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            assertEquals(List.of("name", "note"), reader.next());
+            assertEquals(List.of("Milk, whole", "says \"hi\""), reader.next());
+            assertEquals(2, reader.recordLine());
+            assertEquals(List.of("Bread", "two\nlines"), reader.next());
+            assertEquals(3, reader.recordLine());
+            assertEquals(List.of("Eggs", ""), reader.next());
+            assertEquals(5, reader.recordLine());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testFormatQuotesOnlyWhenNeeded() {
+        assertEquals("a,\"b,c\",\"d \"\"e\"\"\"", CsvReader.format(List.of("a", "b,c", "d \"e\"")));
+    }
+}
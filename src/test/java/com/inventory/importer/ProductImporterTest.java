@@ -0,0 +1,139 @@
+package com.inventory.importer;
+
+import com.inventory.dao.HistoryDAO;
+import com.inventory.dao.ProductDAO;
+import com.inventory.database.ConnectionPool;
+import com.inventory.database.Migrations;
+import com.inventory.database.SchemaMigrator;
+import com.inventory.model.ImportResult;
+import com.inventory.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports CSV into a real in-memory SQLite database.
+ */
+class ProductImporterTest {
+    private static final String EXPIRES = LocalDate.now().plusDays(30).toString();
+
+    @TempDir
+    Path errorDir;
+
+    private Connection connection;
+    private ProductDAO productDAO;
+    private ProductImporter importer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(Migrations.ALL).migrate(connection);
+        ConnectionPool pool = ConnectionPool.shared(connection);
+        productDAO = new ProductDAO(pool, new HistoryDAO(pool));
+        // Small chunks and batches so a short file still spans several of each
+        importer = new ProductImporter(productDAO, 2, 3, 2, errorDir);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        importer.close();
+        connection.close();
+    }
+
+    @Test
+    void testImportsValidRowsAndReportsInvalidOnes() throws IOException {
+        // Arrange
+        String csv = "Name,Price,Stock,Expiration_Date,Category_Id\n"
+                + "Milk,1.5,10," + EXPIRES + ",1\n"
+                + "Bread,abc,5," + EXPIRES + ",1\n"
+                + "\"Eggs, dozen\",3.0,12," + EXPIRES + ",\n"
+                + ",2.0,1," + EXPIRES + ",1\n"
+                + "Milk,1.5,4," + EXPIRES + ",1\n"
+                + "Cheese,7.25,3," + EXPIRES + ",2\n";
+
+        // Act
+        ImportResult result = importer.importCsv(stream(csv));
+
+        // Assert
+        assertEquals(6, result.rowsRead());
+        assertEquals(4, result.imported());
+        assertEquals(2, result.failed());
+        assertTrue(result.batches() >= 2);
+
+        List<Product> products = productDAO.getAllProducts(false);
+        assertEquals(3, products.size());
+        assertEquals(14, products.stream().filter(p -> p.name().equals("Milk")).findFirst().orElseThrow().stock());
+        assertTrue(products.stream().anyMatch(p -> p.name().equals("Eggs, dozen") && p.categoryId() == null));
+
+        Path errors = importer.errorFile(result.errorFile()).orElseThrow();
+        List<String> lines = Files.readAllLines(errors);
+        assertEquals("line,error,record", lines.get(0));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).startsWith("3,Invalid price"));
+        assertTrue(lines.get(2).startsWith("5,name is required"));
+    }
+
+    @Test
+    void testNoErrorFileWhenEveryRowIsValid() throws IOException {
+        ImportResult result = importer.importCsv(stream("name,price,stock,expirationDate\nTea,2.0,5," + EXPIRES + "\n"));
+
+        assertEquals(1, result.imported());
+        assertEquals(0, result.failed());
+        assertNull(result.errorFile());
+    }
+
+    @Test
+    void testMalformedCsvStopsTheImportAndIsReported() throws IOException {
+        // Arrange: the third record opens a quote that never closes
+        String csv = "name,price,stock,expirationDate\n"
+                + "Milk,1.5,10," + EXPIRES + "\n"
+                + "Bread,2.0,5," + EXPIRES + "\n"
+                + "Tea,3.0,4," + EXPIRES + "\n"
+                + "Jam,4.0,2," + EXPIRES + "\n"
+                + "\"Eggs,3.0,12," + EXPIRES + "\n"
+                + "Cheese,7.25,3," + EXPIRES + "\n";
+
+        // Act
+        ImportResult result = importer.importCsv(stream(csv));
+
+        // Assert
+        assertEquals(5, result.rowsRead());
+        assertEquals(4, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(List.of("Milk", "Bread", "Tea", "Jam"),
+                productDAO.getAllProducts(false).stream().map(Product::name).toList());
+        List<String> lines = Files.readAllLines(importer.errorFile(result.errorFile()).orElseThrow());
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).startsWith("6,Unterminated quoted field starting on line 6; the rest of the input was not read"));
+    }
+
+    @Test
+    void testMissingRequiredColumnIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importer.importCsv(stream("name,price\nTea,2.0\n")));
+        assertTrue(e.getMessage().contains("stock"));
+    }
+
+    @Test
+    void testErrorFileRejectsOtherNames() {
+        assertTrue(importer.errorFile("../application.properties").isEmpty());
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package com.inventory.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testOfRoundsHalfUpToTheCent() {
+        assertEquals(101, Money.of(1.005).cents());
+        assertEquals(100, Money.of(new BigDecimal("1.004")).cents());
+        assertEquals(1999, Money.parse(" 19.99 ").cents());
+        assertEquals("19.90", Money.ofCents(1990).toString());
+    }
+
+    @Test
+    void testPercentOffIsExact() {
+        // 20% of 10.00
+        assertEquals(800, Money.ofCents(1000).percentOff(2_000).cents());
+        // 0.99 less 12.5% is 0.86625, rounded half-up
+        assertEquals(87, Money.ofCents(99).percentOff(Money.basisPoints(new BigDecimal("12.5"))).cents());
+        // 0.05 less 10% is 0.045, which rounds up to 0.05 as the BigDecimal version did
+        assertEquals(5, Money.ofCents(5).percentOff(1_000).cents());
+        assertEquals(0, Money.ofCents(1234).percentOff(Money.BASIS_POINTS).cents());
+    }
+
+    @Test
+    void testMinusMayGoNegative() {
+        Money result = Money.ofCents(200).minus(Money.of(5.0));
+        assertTrue(result.isNegative());
+        assertEquals(-300, result.cents());
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals("4.50", mapper.writeValueAsString(Money.ofCents(450)));
+        assertEquals(Money.ofCents(450), mapper.readValue("4.5", Money.class));
+        assertEquals(Money.ofCents(450), mapper.readValue("\"4.50\"", Money.class));
+    }
+}
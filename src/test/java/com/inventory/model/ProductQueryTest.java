@@ -0,0 +1,58 @@
+package com.inventory.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQueryTest {
+
+    @Test
+    void testDefaults() {
+        ProductQuery query = ProductQuery.of(null, null, null, null, null, null, null);
+        assertEquals(ProductSort.ID, query.sort());
+        assertFalse(query.descending());
+        assertEquals(ProductQuery.DEFAULT_LIMIT, query.limit());
+        assertNull(query.afterId());
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        ProductQuery first = ProductQuery.of(null, 10, null, null, null, null, "-price");
+        Product last = new Product(42, "Milk|Whole", 4.5, 10, LocalDate.of(2030, 1, 1), false, null, null);
+
+        ProductQuery next = ProductQuery.of(first.cursorAfter(last), 10, null, null, null, null, "-price");
+
+        assertTrue(next.descending());
+        assertEquals(4.5, next.afterKey());
+        assertEquals(42, next.afterId());
+    }
+
+    @Test
+    void testCursorWithNameContainingSeparator() {
+        ProductQuery first = ProductQuery.of(null, 10, null, null, null, null, "name");
+        Product last = new Product(7, "A|B|C", 1.0, 1, LocalDate.of(2030, 1, 1), false, null, null);
+
+        ProductQuery next = ProductQuery.of(first.cursorAfter(last), 10, null, null, null, null, "name");
+
+        assertEquals("A|B|C", next.afterKey());
+        assertEquals(7, next.afterId());
+    }
+
+    @Test
+    void testCursorForDifferentSortRejected() {
+        ProductQuery byName = ProductQuery.of(null, 10, null, null, null, null, "name");
+        String cursor = byName.cursorAfter(new Product(1, "Milk", 1.0, 1, LocalDate.of(2030, 1, 1), false, null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.of(cursor, 10, null, null, null, null, "price"));
+    }
+
+    @Test
+    void testInvalidLimitAndSortRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.of(null, 0, null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.of(null, ProductQuery.MAX_LIMIT + 1, null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.of(null, 10, null, null, null, null, "color"));
+        assertThrows(IllegalArgumentException.class, () -> ProductQuery.of("not base64!", 10, null, null, null, null, null));
+    }
+}
@@ -0,0 +1,185 @@
+package com.inventory.service;
+
+import com.inventory.dao.HistoryDAO;
+import com.inventory.dao.ProductDAO;
+import com.inventory.database.ConnectionPool;
+import com.inventory.database.Migrations;
+import com.inventory.database.SchemaMigrator;
+import com.inventory.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keeps a snapshot over a real in-memory SQLite database in step with committed writes.
+ */
+class CatalogSnapshotTest {
+    private Connection connection;
+    private ConnectionPool pool;
+    private ProductDAO productDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(Migrations.ALL).migrate(connection);
+        pool = ConnectionPool.shared(connection);
+        productDAO = new ProductDAO(pool, new HistoryDAO(pool));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void testLoadsExistingRowsAndFollowsCommittedWrites() throws SQLException {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Whole Milk", 10)).id();
+        CatalogSnapshot snapshot = CatalogSnapshot.load(productDAO);
+        CatalogSnapshot.Catalog loaded = snapshot.current();
+
+        // Act
+        int bread = productDAO.insertOrUpdateProduct(product("Bread", 40)).id();
+        productDAO.adjustStock(milk, -4);
+
+        // Assert
+        assertEquals(List.of(milk), loaded.products().stream().map(Product::id).toList());
+        CatalogSnapshot.Catalog catalog = snapshot.current();
+        assertEquals(List.of(milk, bread), catalog.products().stream().map(Product::id).toList());
+        assertEquals(6, catalog.get(milk).stock());
+        assertTrue(catalog.version() > loaded.version());
+
+        productDAO.deleteProduct(bread);
+        assertEquals(List.of(milk), snapshot.current().products().stream().map(Product::id).toList());
+    }
+
+    @Test
+    void testRolledBackWriteIsNotPublished() throws SQLException {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Milk", 10)).id();
+        CatalogSnapshot snapshot = CatalogSnapshot.load(productDAO);
+        long version = snapshot.current().version();
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> pool.transactions().executeWithoutResult(c -> {
+            productDAO.adjustStock(milk, -10);
+            throw new IllegalStateException("abort");
+        }));
+
+        // Assert
+        assertEquals(version, snapshot.current().version());
+        assertEquals(10, snapshot.current().get(milk).stock());
+    }
+
+    @Test
+    void testNameAndExpiryQueries() {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Whole MILK", 10)).id();
+        int bread = productDAO.insertOrUpdateProduct(product("Bread", 40)).id();
+        int oatMilk = productDAO.insertOrUpdateProduct(product("Oat milk", 20)).id();
+        CatalogSnapshot.Catalog catalog = CatalogSnapshot.load(productDAO).current();
+
+        // Act & Assert
+        assertEquals(List.of(milk, oatMilk), catalog.findByName("Milk").stream().map(Product::id).toList());
+        assertEquals(List.of(milk, oatMilk),
+                catalog.expiringBefore(LocalDate.now().plusDays(21)).stream().map(Product::id).toList());
+        assertEquals(List.of(milk), catalog.expiringBefore(LocalDate.now().plusDays(20)).stream().map(Product::id).toList());
+        assertEquals(List.of(milk, bread, oatMilk),
+                catalog.expiringBefore(LocalDate.now().plusDays(41)).stream().map(Product::id).toList());
+        assertTrue(catalog.expiringBefore(LocalDate.now()).isEmpty());
+    }
+
+    @Test
+    void testColumnsFollowCatalogVersion() {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Milk", 10)).id();
+        CatalogSnapshot snapshot = CatalogSnapshot.load(productDAO);
+        ColumnarCatalog first = snapshot.columns();
+        assertSame(first, snapshot.columns());
+
+        // Act
+        productDAO.adjustStock(milk, 5);
+
+        // Assert
+        ColumnarCatalog second = snapshot.columns();
+        assertNotSame(first, second);
+        assertEquals(10, first.stockValueByCategory().get(0).units());
+        assertEquals(15, second.stockValueByCategory().get(0).units());
+    }
+
+    @Test
+    void testIndexedNameSearchFollowsRenamesAndDeletes() throws SQLException {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Whole Milk", 10)).id();
+        int bread = productDAO.insertOrUpdateProduct(product("Bread", 40)).id();
+        CatalogSnapshot snapshot = CatalogSnapshot.load(productDAO);
+
+        // Act
+        Product renamed = productDAO.findById(bread).orElseThrow();
+        productDAO.updateProduct(new Product(bread, "Milk Bread", renamed.price(), renamed.stock(),
+                renamed.expirationDate(), false, 1, null, renamed.version()));
+        productDAO.deleteProduct(milk);
+
+        // Assert
+        assertEquals(List.of(bread), snapshot.findByName("MILK").stream().map(Product::id).toList());
+        assertEquals(List.of(bread), snapshot.findByName("k b").stream().map(Product::id).toList());
+        assertEquals(List.of(bread), snapshot.findByName("mi").stream().map(Product::id).toList());
+        assertTrue(snapshot.findByName("whole").isEmpty());
+    }
+
+    @Test
+    void testRenameKeepsTheGramsAndPrefixBothNamesShare() throws SQLException {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Milk", 10)).id();
+        int cheese = productDAO.insertOrUpdateProduct(product("Cheese", 20)).id();
+        CatalogSnapshot snapshot = CatalogSnapshot.load(productDAO);
+
+        // Act
+        rename(milk, "Milky");
+        rename(cheese, "CHEESE");
+
+        // Assert
+        assertEquals(List.of(milk), snapshot.findByName("milk").stream().map(Product::id).toList());
+        assertEquals(List.of(cheese), snapshot.findByName("chees").stream().map(Product::id).toList());
+        assertEquals(List.of(milk), snapshot.suggest("mil", 5).stream().map(Product::id).toList());
+        assertEquals(List.of(cheese), snapshot.suggest("che", 5).stream().map(Product::id).toList());
+    }
+
+    private void rename(int id, String name) throws SQLException {
+        Product product = productDAO.findById(id).orElseThrow();
+        productDAO.updateProduct(new Product(id, name, product.price(), product.stock(),
+                product.expirationDate(), false, product.categoryId(), product.supplierId(), product.version()));
+    }
+
+    @Test
+    void testSuggestRanksByStockAndFollowsWrites() throws SQLException {
+        // Arrange
+        int milk = productDAO.insertOrUpdateProduct(product("Milk", 10)).id();
+        int milkshake = productDAO.insertOrUpdateProduct(product("Milkshake", 20)).id();
+        int mild = productDAO.insertOrUpdateProduct(product("mild cheese", 30)).id();
+        productDAO.insertOrUpdateProduct(product("Bread", 40));
+        CatalogSnapshot snapshot = CatalogSnapshot.load(productDAO);
+
+        // Act
+        productDAO.adjustStock(milkshake, 5);
+
+        // Assert
+        assertEquals(List.of(milkshake, milk, mild), snapshot.suggest("MIL", 10).stream().map(Product::id).toList());
+        assertEquals(List.of(milkshake), snapshot.suggest("mil", 1).stream().map(Product::id).toList());
+
+        productDAO.deleteProduct(milkshake);
+        assertEquals(List.of(milk), snapshot.suggest("milk", 10).stream().map(Product::id).toList());
+    }
+
+    private static Product product(String name, int daysToExpiry) {
+        return new Product(0, name, 1.0, 10, LocalDate.now().plusDays(daysToExpiry), false, 1, null);
+    }
+}
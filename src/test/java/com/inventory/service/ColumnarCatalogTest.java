@@ -0,0 +1,40 @@
+package com.inventory.service;
+
+import com.inventory.model.CategoryStockValue;
+import com.inventory.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCatalogTest {
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 1);
+
+    private final ColumnarCatalog columns = ColumnarCatalog.of(List.of(
+            new Product(1, "Milk", 1.10, 10, TODAY.plusDays(2), false, 1, 7),
+            new Product(2, "Milk", 0.99, 5, TODAY.plusDays(9), true, 1, null),
+            new Product(3, "Bread", 2.50, 0, TODAY.plusDays(1), false, 2, 7),
+            new Product(4, "Salt", 0.30, 100, TODAY.plusDays(400), false, null, null)));
+
+    @Test
+    void testStockValueByCategory() {
+        // Act
+        List<CategoryStockValue> values = columns.stockValueByCategory();
+
+        // Assert: 10 * 1.10 + 5 * 0.99 = 15.95
+        assertEquals(List.of(
+                new CategoryStockValue(1, 15, new BigDecimal("15.95")),
+                new CategoryStockValue(2, 0, new BigDecimal("0.00")),
+                new CategoryStockValue(null, 100, new BigDecimal("30.00"))), values);
+    }
+
+    @Test
+    void testExpiryCountsUseHalfOpenRange() {
+        assertEquals(1, columns.countInStockExpiringBetween(TODAY, TODAY.plusDays(7)));
+        assertEquals(2, columns.countInStockExpiringBetween(TODAY, TODAY.plusDays(9)));
+        assertEquals(0, columns.countInStockExpiringBetween(TODAY.plusDays(2), TODAY.plusDays(8)));
+    }
+}
@@ -0,0 +1,28 @@
+package com.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    @Test
+    void testPrefixRangeIsCaseFolded() {
+        // Arrange
+        PrefixIndex index = new PrefixIndex();
+        index.add(1, "Milk");
+        index.add(2, "MILKSHAKE");
+        index.add(3, "Mild Cheese");
+        index.add(4, "Bread");
+
+        // Act & Assert
+        assertEquals(List.of(1, 2), index.withPrefix("milk").stream().map(PrefixIndex.Entry::id).toList());
+        assertEquals(List.of(3, 1, 2), index.withPrefix("mil").stream().map(PrefixIndex.Entry::id).toList());
+        assertTrue(index.withPrefix("x").isEmpty());
+
+        index.remove(2, "MilkShake");
+        assertEquals(List.of(1), index.withPrefix("milk").stream().map(PrefixIndex.Entry::id).toList());
+    }
+}
@@ -4,12 +4,17 @@ import com.inventory.dao.CategoryDAO;
 import com.inventory.dao.HistoryDAO;
 import com.inventory.dao.ProductDAO;
 import com.inventory.dao.SupplierDAO;
+import com.inventory.database.ConnectionPool;
+import com.inventory.exception.ProductNotFoundException;
 import com.inventory.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.sql.Connection;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -20,6 +25,7 @@ class ProductServiceImplTest {
     private CategoryDAO mockCategoryDAO;
     private SupplierDAO mockSupplierDAO;
     private HistoryDAO mockHistoryDAO;
+    private Connection mockConnection;
     private ProductServiceImpl productService;
 
     @BeforeEach
@@ -28,7 +34,9 @@ class ProductServiceImplTest {
         mockCategoryDAO = mock(CategoryDAO.class);
         mockSupplierDAO = mock(SupplierDAO.class);
         mockHistoryDAO = mock(HistoryDAO.class);
-        productService = new ProductServiceImpl(mockProductDAO, mockCategoryDAO, mockSupplierDAO, mockHistoryDAO);
+        mockConnection = mock(Connection.class);
+        productService = new ProductServiceImpl(mockProductDAO, mockCategoryDAO, mockSupplierDAO, mockHistoryDAO,
+                ConnectionPool.shared(mockConnection).transactions(), new CatalogSnapshot(mockProductDAO));
     }
 
     @Test
@@ -56,7 +64,7 @@ class ProductServiceImplTest {
         // Arrange
         Product original = new Product(1, "Milk", 10.0, 100, LocalDate.of(2025, 6, 30), false, 1, 1);
         Product discounted = new Product(1, "Milk", 9.0, 100, LocalDate.of(2025, 6, 30), true, 1, 1);
-        when(mockProductDAO.getAllProducts(false)).thenReturn(java.util.Collections.singletonList(original));
+        when(mockProductDAO.findById(1)).thenReturn(Optional.of(original));
 
         // Act
         productService.applyDiscount(1);
@@ -64,4 +72,39 @@ class ProductServiceImplTest {
         // Assert
         verify(mockProductDAO).updateProduct(discounted);
     }
+
+    @Test
+    void testAdjustStockForExpiredClearsInOneCall() {
+        // Arrange
+        when(mockProductDAO.clearExpiredStock(LocalDate.now())).thenReturn(2);
+
+        // Act
+        int adjusted = productService.adjustStockForExpired();
+
+        // Assert
+        assertEquals(2, adjusted);
+        verify(mockProductDAO, never()).getAllProducts(anyBoolean());
+        verify(mockProductDAO, never()).adjustStock(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetProductByIdSuccess() {
+        // Arrange
+        Product product = new Product(1, "Milk", 10.0, 100, LocalDate.now().plusDays(10), false, 1, 1);
+        when(mockProductDAO.findById(1)).thenReturn(Optional.of(product));
+
+        // Act & Assert
+        assertEquals(product, productService.getProductById(1));
+        verify(mockProductDAO, never()).getAllProducts(anyBoolean());
+    }
+
+    @Test
+    void testGetProductByIdNotFoundThrows() {
+        // Arrange
+        when(mockProductDAO.findById(99)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        Exception exception = assertThrows(ProductNotFoundException.class, () -> productService.getProductById(99));
+        assertEquals("Product with ID 99 not found", exception.getMessage());
+    }
 }
\ No newline at end of file
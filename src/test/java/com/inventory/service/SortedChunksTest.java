@@ -0,0 +1,86 @@
+package com.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedChunksTest {
+
+    @Test
+    void testRandomPatchesMatchATreeSet() {
+        // Arrange
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 3_000; i++) {
+            expected.add(random.nextInt(10_000));
+        }
+        SortedChunks<Integer> list = SortedChunks.of(expected, Comparator.naturalOrder());
+
+        // Act
+        for (int round = 0; round < 200; round++) {
+            List<Integer> removed = new ArrayList<>();
+            List<Integer> added = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(50); i++) {
+                Integer value = expected.ceiling(random.nextInt(10_000));
+                if (value != null && !removed.contains(value)) {
+                    removed.add(value);
+                }
+            }
+            expected.removeAll(removed);
+            for (int i = 0; i < random.nextInt(80); i++) {
+                int value = random.nextInt(10_000);
+                if (expected.add(value)) {
+                    added.add(value);
+                }
+            }
+            list = list.with(removed, added);
+
+            // Assert
+            assertEquals(new ArrayList<>(expected), list);
+        }
+    }
+
+    @Test
+    void testLowerBoundAndFind() {
+        // Arrange
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 2_000; i += 2) {
+            values.add(i);
+        }
+        SortedChunks<Integer> list = SortedChunks.of(values, Comparator.naturalOrder());
+
+        // Act & Assert
+        assertEquals(0, list.lowerBound(v -> Integer.compare(v, -5)));
+        assertEquals(500, list.lowerBound(v -> Integer.compare(v, 999)));
+        assertEquals(1_000, list.lowerBound(v -> Integer.compare(v, 5_000)));
+        assertEquals(1_200, list.find(v -> Integer.compare(v, 1_200)));
+        assertNull(list.find(v -> Integer.compare(v, 1_201)));
+    }
+
+    @Test
+    void testUntouchedChunksAreShared() {
+        // Arrange
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 10 * SortedChunks.CHUNK; i++) {
+            values.add(i);
+        }
+        SortedChunks<Integer> list = SortedChunks.of(values, Comparator.naturalOrder());
+
+        // Act
+        SortedChunks<Integer> patched = list.with(List.of(7), List.of());
+        SortedChunks<Integer> emptied = list.with(values, List.of());
+
+        // Assert
+        assertEquals(values.size() - 1, patched.size());
+        assertEquals(8, patched.get(7));
+        assertEquals(values.get(values.size() - 1), patched.get(patched.size() - 1));
+        assertTrue(emptied.isEmpty());
+        assertEquals(List.of(1), emptied.with(List.of(), List.of(1)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    @Test
+    void testCandidatesIntersectPostings() {
+        // Arrange
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "Whole Milk");
+        index.add(2, "Oat MILK");
+        index.add(3, "Milkshake");
+        index.add(4, "Bread");
+
+        // Act & Assert
+        assertEquals(List.of(1, 2, 3), index.candidates("milk").stream().sorted().toList());
+        assertEquals(List.of(3), index.candidates("kshak"));
+        assertEquals(List.of(), index.candidates("zzz"));
+        assertNull(index.candidates("mi"));
+    }
+
+    @Test
+    void testRemoveDropsOnlyThatProduct() {
+        // Arrange
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "Milk");
+        index.add(2, "Milk");
+
+        // Act
+        index.remove(1, "Milk");
+
+        // Assert
+        assertEquals(List.of(2), index.candidates("milk"));
+        index.remove(2, "Milk");
+        assertEquals(List.of(), index.candidates("milk"));
+    }
+}
@@ -6,6 +6,8 @@ import net.bytebuddy.asm.Advice;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,4 +72,35 @@ class ProductValidatorTest {
         Product product = new Product(1, "Milk", 5.0, 100, LocalDate.of(2025, 6, 30), false, null, 1);
         assertDoesNotThrow(() -> ProductValidator.validateProduct(product));
     }
+
+    @Test
+    void testNullExpirationDateIsIllegalArgument() {
+        Product product = new Product(1, "Milk", 5.0, 100, null, false, 1, 1);
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> ProductValidator.validateProduct(product));
+        assertEquals("expirationDate cannot be null", exception.getMessage());
+    }
+
+    @Test
+    void testValidateAllCollectsEveryViolation() {
+        // Arrange
+        LocalDate future = LocalDate.now().plusDays(30);
+        List<Product> products = Arrays.asList(
+                new Product(1, "Milk", 5.0, 100, future, false, 1, 1),
+                new Product(2, " ", -1.0, -3, LocalDate.now().minusDays(1), false, 0, null),
+                null,
+                new Product(4, "Bread", 2.0, 1, future, false, null, null));
+
+        // Act
+        ValidationReport report = ProductValidator.validateAll(products);
+
+        // Assert
+        assertEquals(4, report.total());
+        assertEquals(2, report.valid());
+        assertEquals(2, report.invalid());
+        assertEquals(1, report.errors().get(0).index());
+        assertEquals(List.of("name cannot be empty or whitespace only.", "price must be at least 0.01",
+                "stock must be at least 0", "expirationDate cannot be in the past: " + LocalDate.now().minusDays(1),
+                "categoryId must be at least 1"), report.errors().get(0).violations());
+        assertEquals(new ValidationReport.RowErrors(2, List.of("Product cannot be null.")), report.errors().get(1));
+    }
 }